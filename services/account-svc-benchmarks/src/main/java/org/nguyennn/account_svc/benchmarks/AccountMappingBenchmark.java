@@ -0,0 +1,81 @@
+package org.nguyennn.account_svc.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.nguyennn.account_svc.adapter.out.persistence.AccountEntity;
+import org.nguyennn.account_svc.domain.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Domain/entity mapping of accounts and the builder it relies on
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountMappingBenchmark {
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID customerId = UUID.randomUUID();
+    private final BigDecimal balance = new BigDecimal("1500.2500");
+    private final Instant now = Instant.now();
+
+    private Account account;
+    private AccountEntity entity;
+    private Account.AccountType type;
+
+    @Setup
+    public void setup() {
+        account = builder();
+        entity = AccountEntity.fromDomain(account);
+        type = Account.AccountType.MERCHANT;
+    }
+
+    private Account builder() {
+        return Account.builder()
+                .id(id)
+                .customerId(customerId)
+                .accountNumber("ACC-0000012345")
+                .type(Account.AccountType.CHECKING)
+                .balance(balance)
+                .currency("USD")
+                .status(Account.AccountStatus.ACTIVE)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    @Benchmark
+    public Account accountBuilder() {
+        return builder();
+    }
+
+    @Benchmark
+    public Account toDomain() {
+        return entity.toDomain();
+    }
+
+    @Benchmark
+    public AccountEntity fromDomain() {
+        return AccountEntity.fromDomain(account);
+    }
+
+    @Benchmark
+    public Account.AccountType enumRoundTrip() {
+        return Account.AccountType.valueOf(AccountEntity.AccountType.valueOf(type.name()).name());
+    }
+}
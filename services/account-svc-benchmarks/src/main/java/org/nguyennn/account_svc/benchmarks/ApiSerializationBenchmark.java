@@ -0,0 +1,101 @@
+package org.nguyennn.account_svc.benchmarks;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.nguyennn.account_svc.adapter.in.api.ApiResponse;
+import org.nguyennn.account_svc.adapter.in.api.Paginated;
+import org.nguyennn.account_svc.domain.Account;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * Jackson serialization of the REST response envelopes, configured like the Quarkus ObjectMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectWriter writer;
+    private ApiResponse<Account> accountResponse;
+    private ApiResponse<Map<String, Object>> balanceResponse;
+    private ApiResponse<Paginated<Account>> pageResponse;
+
+    @Setup
+    public void setup() {
+        writer = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build()
+                .writer();
+
+        List<Account> accounts = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            accounts.add(account(i));
+        }
+        Account account = accounts.getFirst();
+        accountResponse = ApiResponse.success("Account retrieved successfully", account);
+        balanceResponse = ApiResponse.success("Balance retrieved successfully", Map.of(
+                "accountId", account.getId(),
+                "balance", account.getBalance(),
+                "currency", account.getCurrency()));
+        Paginated<Account> page = new Paginated<>(accounts,
+                new Paginated.Metadata(new Paginated.PaginationInfo(pageSize, pageSize, 10_000)));
+        pageResponse = ApiResponse.success(page);
+    }
+
+    private static Account account(int i) {
+        return Account.builder()
+                .id(UUID.randomUUID())
+                .customerId(UUID.randomUUID())
+                .accountNumber("ACC-" + (1_000_000 + i))
+                .type(Account.AccountType.SAVINGS)
+                .balance(BigDecimal.valueOf(10_000 + i, 2))
+                .currency("EUR")
+                .status(Account.AccountStatus.ACTIVE)
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] account() throws JsonProcessingException {
+        return writer.writeValueAsBytes(accountResponse);
+    }
+
+    @Benchmark
+    public byte[] balance() throws JsonProcessingException {
+        return writer.writeValueAsBytes(balanceResponse);
+    }
+
+    @Benchmark
+    public byte[] paginated() throws JsonProcessingException {
+        return writer.writeValueAsBytes(pageResponse);
+    }
+}
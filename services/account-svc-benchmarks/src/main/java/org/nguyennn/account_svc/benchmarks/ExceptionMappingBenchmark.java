@@ -0,0 +1,60 @@
+package org.nguyennn.account_svc.benchmarks;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.nguyennn.account_svc.adapter.in.api.GlobalExceptionHandler;
+import org.nguyennn.account_svc.application.exceptions.AccountNotFoundException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import jakarta.validation.ConstraintViolationException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Error response construction in {@link GlobalExceptionHandler#toResponse(Exception)}. The
+ * unexpected-error branch is left out because it logs every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExceptionMappingBenchmark {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    private final AccountNotFoundException accountNotFound = new AccountNotFoundException("Account not found");
+    private final NotFoundException routeNotFound = new NotFoundException("Route not found");
+    private final IllegalArgumentException invalidArgument = new IllegalArgumentException("Invalid argument");
+    private final ConstraintViolationException validation = new ConstraintViolationException("Invalid", Set.of());
+
+    @Benchmark
+    public Response accountNotFound() {
+        return handler.toResponse(accountNotFound);
+    }
+
+    @Benchmark
+    public Response routeNotFound() {
+        return handler.toResponse(routeNotFound);
+    }
+
+    @Benchmark
+    public Response invalidArgument() {
+        return handler.toResponse(invalidArgument);
+    }
+
+    @Benchmark
+    public Response validation() {
+        return handler.toResponse(validation);
+    }
+}
@@ -0,0 +1,63 @@
+package org.nguyennn.account_svc.benchmarks;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.nguyennn.account_svc.adapter.in.kafka.TransactionInitiatedCodec;
+import org.nguyennn.account_svc.adapter.in.kafka.TransactionInitiatedDeserializer;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of transaction-initiated messages as done by the Kafka listener's deserializer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KafkaMessageParsingBenchmark {
+
+    private final TransactionInitiatedDeserializer deserializer = new TransactionInitiatedDeserializer();
+
+    private byte[] binary;
+    private byte[] legacyCsv;
+    private byte[] legacyCsvWithTransaction;
+
+    @Setup
+    public void setup() {
+        UUID accountId = UUID.randomUUID();
+        UUID transactionId = UUID.randomUUID();
+        binary = TransactionInitiatedCodec.encode(
+                new BalanceVerificationRequest(transactionId, accountId, new BigDecimal("1234.5600"), "USD"));
+        legacyCsv = (accountId + ",1234.56").getBytes(StandardCharsets.US_ASCII);
+        legacyCsvWithTransaction = (accountId + ",1234.56," + transactionId).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public BalanceVerificationRequest binary() {
+        return deserializer.deserialize("transaction-initiated", binary);
+    }
+
+    @Benchmark
+    public BalanceVerificationRequest legacyCsv() {
+        return deserializer.deserialize("transaction-initiated", legacyCsv);
+    }
+
+    @Benchmark
+    public BalanceVerificationRequest legacyCsvWithTransaction() {
+        return deserializer.deserialize("transaction-initiated", legacyCsvWithTransaction);
+    }
+}
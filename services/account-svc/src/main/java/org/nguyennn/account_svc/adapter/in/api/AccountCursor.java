@@ -0,0 +1,45 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor for account listings: the URL-safe Base64 encoding of the last account ID
+ * of a page
+ */
+final class AccountCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private AccountCursor() {
+    }
+
+    static String encode(UUID accountId) {
+        if (accountId == null) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(16)
+                .putLong(accountId.getMostSignificantBits())
+                .putLong(accountId.getLeastSignificantBits());
+        return ENCODER.encodeToString(buffer.array());
+    }
+
+    static UUID decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = DECODER.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (bytes.length != 16) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+}
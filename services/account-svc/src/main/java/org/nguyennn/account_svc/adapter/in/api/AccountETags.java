@@ -0,0 +1,41 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.time.Instant;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.domain.Account;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Strong entity tags for account representations, so clients can revalidate with
+ * {@code If-None-Match} and get a 304 when nothing changed
+ */
+final class AccountETags {
+
+    private AccountETags() {
+    }
+
+    /**
+     * Tag of an account: its ID, {@code updated_at}, which the table trigger bumps on every
+     * change to the row, and the balance. The balance only matters for sharded accounts, whose
+     * shard credits leave the account row alone, but the account does not say whether it is
+     * sharded, so it is always part of the tag.
+     */
+    static EntityTag of(Account account) {
+        Instant updatedAt = account.getUpdatedAt();
+        long version = updatedAt == null ? 0
+                : updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+        return new EntityTag(account.getId() + "-" + Long.toString(version, 36) + "-"
+                + account.getBalance().stripTrailingZeros().toPlainString());
+    }
+
+    /**
+     * Tag of a balance, taken from the balance itself: credits to a sharded account change the
+     * balance without touching the account row, so {@code updated_at} would not move
+     */
+    static EntityTag of(AccountBalance balance) {
+        return new EntityTag(balance.accountId() + "-" + balance.balance().stripTrailingZeros().toPlainString()
+                + "-" + balance.currency() + "-" + balance.status());
+    }
+}
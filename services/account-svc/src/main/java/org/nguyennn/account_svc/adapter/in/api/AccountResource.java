@@ -1,39 +1,68 @@
 package org.nguyennn.account_svc.adapter.in.api;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.OffsetDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import jakarta.transaction.Transactional;
 import org.jboss.resteasy.reactive.RestPath;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
+import org.nguyennn.account_svc.application.dto.CustomerAccounts;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
 import org.nguyennn.account_svc.application.exceptions.AccountNotFoundException;
 import org.nguyennn.account_svc.application.in.AccountUseCases;
 import org.nguyennn.account_svc.domain.Account;
 import org.nguyennn.account_svc.domain.Account.AccountStatus;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.PATCH;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.PUT;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.EntityTag;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 
 @Path("/api/v1")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
 public class AccountResource {
 
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /** Accounts written between explicit flushes of the export stream. */
+    private static final int EXPORT_FLUSH_EVERY = 256;
+
     private final AccountUseCases accountUseCases;
+    private final ObjectMapper objectMapper;
 
     @Inject
-    public AccountResource(AccountUseCases accountUseCases) {
+    public AccountResource(AccountUseCases accountUseCases, ObjectMapper objectMapper) {
         this.accountUseCases = accountUseCases;
+        this.objectMapper = objectMapper;
     }
 
     @GET
@@ -53,45 +82,206 @@ public class AccountResource {
         }
     }
 
+    /**
+     * Export all accounts with a status as newline-delimited JSON. Accounts are written while
+     * they are read from the database, so the response starts immediately and memory use does
+     * not depend on the number of accounts.
+     */
+    @GET
+    @Path("/accounts/export")
+    @Produces(APPLICATION_NDJSON)
+    @RunOnVirtualThread
+    public Response exportAccountsByStatus(
+            @NotNull(message = "Status cannot be null")
+            @QueryParam("status") AccountStatus status) {
+
+        StreamingOutput stream = output -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(output)) {
+                int[] written = {0};
+                accountUseCases.streamAccountsByStatus(status, account -> {
+                    try {
+                        generator.writeObject(account);
+                        generator.writeRaw('\n');
+                        if (written[0]++ % EXPORT_FLUSH_EVERY == 0) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return Response.ok(stream, APPLICATION_NDJSON).build();
+    }
+
+    /**
+     * Create a batch of accounts in one transaction. IDs are generated by the service.
+     */
+    @POST
+    @Path("/accounts:batch")
+    @RunOnVirtualThread
+    @Transactional
+    public Response createAccounts(
+            @NotNull(message = "Request body cannot be null") @Valid CreateAccountsRequest request) {
+
+        List<Account> created = accountUseCases.createAccounts(
+                request.accounts().stream().map(CreateAccountsRequest.NewAccount::toDomain).toList());
+        List<Map<String, Object>> ids = created.stream()
+                .map(account -> Map.<String, Object>of("id", account.getId(), "accountNumber", account.getAccountNumber()))
+                .toList();
+        return Response.status(Response.Status.CREATED)
+                .entity(ApiResponse.success("Accounts created successfully", ids))
+                .build();
+    }
+
+    /**
+     * Get the balances of several accounts in one call. Results follow the order of the
+     * requested IDs, without duplicates; accounts that do not exist are reported inline.
+     */
+    @POST
+    @Path("/accounts/balances")
+    @RunOnVirtualThread
+    public Response getAccountBalances(
+            @NotNull(message = "Request body cannot be null") @Valid BalanceLookupRequest request) {
+
+        Set<UUID> accountIds = new LinkedHashSet<>(request.accountIds());
+        accountIds.remove(null);
+        Map<UUID, AccountBalance> balances = accountUseCases.getAccountBalances(accountIds);
+        List<BalanceLookupResult> results = accountIds.stream()
+                .map(accountId -> {
+                    AccountBalance balance = balances.get(accountId);
+                    return balance != null ? BalanceLookupResult.of(balance) : BalanceLookupResult.notFound(accountId);
+                })
+                .toList();
+        return Response.ok(ApiResponse.success("Balances retrieved successfully", results)).build();
+    }
+
+    /**
+     * Get an account. Answers 304 when {@code If-None-Match} carries the current ETag; the
+     * account normally comes from the second-level cache, so that check costs no query.
+     */
     @GET
     @Path("/accounts/{accountId}")
     @RunOnVirtualThread
     public Response getAccountById(
             @RestPath
-            @NotNull(message = "Account ID cannot be null") UUID accountId) {
+            @NotNull(message = "Account ID cannot be null") UUID accountId,
+            Request request) {
 
         Optional<Account> account = accountUseCases.getAccountById(accountId);
         if (account.isPresent()) {
-            return Response.ok(ApiResponse.success("Account retrieved successfully", account.get())).build();
+            EntityTag tag = AccountETags.of(account.get());
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+            if (notModified != null) {
+                return notModified.build();
+            }
+            return Response.ok(ApiResponse.success("Account retrieved successfully", account.get()))
+                    .tag(tag)
+                    .build();
         } else {
             throw new AccountNotFoundException("Account not found with ID: " + accountId);
         }
     }
 
     /**
-     * Get the balance of a specific account
+     * List the accounts of a customer. Pages are keyset based by default: pass the
+     * {@code nextCursor} of a page as {@code cursor} to get the next one, and {@code count=true}
+     * to also get the total count. Passing {@code offset} switches to offset pagination, which
+     * always counts.
+     */
+    @GET
+    @Path("/customers/{customerId}/accounts")
+    @RunOnVirtualThread
+    public Response getAccountsByCustomerId(
+            @RestPath
+            @NotNull(message = "Customer ID cannot be null") UUID customerId,
+            @QueryParam("cursor") String cursor,
+            @QueryParam("offset")
+            @PositiveOrZero(message = "Offset cannot be negative") Integer offset,
+            @QueryParam("limit") @DefaultValue("20")
+            @Min(value = 1, message = "Limit must be at least 1")
+            @Max(value = 100, message = "Limit must be at most 100") int limit,
+            @QueryParam("count") @DefaultValue("false") boolean count) {
+
+        if (offset != null) {
+            CustomerAccounts page = accountUseCases.getAccountsByCustomerId(customerId, offset, limit);
+            Paginated<Account> paginated = new Paginated<>(page.accounts(),
+                    new Paginated.Metadata(new Paginated.PaginationInfo(offset, limit, page.count())));
+            return Response.ok(ApiResponse.success("Accounts retrieved successfully", paginated)).build();
+        }
+
+        CustomerAccounts page = accountUseCases.getAccountsByCustomerIdAfter(
+                customerId, AccountCursor.decode(cursor), limit, count);
+        Paginated<Account> paginated = new Paginated<>(page.accounts(), new Paginated.Metadata(
+                new Paginated.CursorInfo(limit, page.count(), AccountCursor.encode(page.nextAfter()))));
+        return Response.ok(ApiResponse.success("Accounts retrieved successfully", paginated)).build();
+    }
+
+    /**
+     * Get the balance of a specific account, or the balance it had at a point in time when
+     * {@code asOf} is given. The current balance carries an ETag and is checked against
+     * {@code If-None-Match} straight from the balance cache.
      */
     @GET
     @Path("/accounts/{accountId}/balance")
     @RunOnVirtualThread
     public Response getAccountBalance(
             @RestPath
-            @NotNull(message = "Account ID cannot be null") UUID accountId) {
+            @NotNull(message = "Account ID cannot be null") UUID accountId,
+            @QueryParam("asOf") OffsetDateTime asOf,
+            Request request) {
 
-        Optional<Account> accountOpt = accountUseCases.getAccountById(accountId);
-        if (accountOpt.isPresent()) {
-            Account account = accountOpt.get();
+        if (asOf != null) {
+            HistoricalBalance balance = accountUseCases.getAccountBalanceAt(accountId, asOf)
+                    .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
             Map<String, Object> balanceInfo = Map.of(
-                    "accountId", account.getId(),
-                    "balance", account.getBalance(),
-                    "currency", account.getCurrency()
+                    "accountId", balance.accountId(),
+                    "balance", balance.balance(),
+                    "currency", balance.currency(),
+                    "asOf", balance.asOf()
             );
             return Response.ok(ApiResponse.success("Balance retrieved successfully", balanceInfo)).build();
+        }
+
+        Optional<AccountBalance> balanceOpt = accountUseCases.getAccountBalance(accountId);
+        if (balanceOpt.isPresent()) {
+            AccountBalance balance = balanceOpt.get();
+            EntityTag tag = AccountETags.of(balance);
+            Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+            if (notModified != null) {
+                return notModified.build();
+            }
+            Map<String, Object> balanceInfo = Map.of(
+                    "accountId", balance.accountId(),
+                    "balance", balance.balance(),
+                    "currency", balance.currency()
+            );
+            return Response.ok(ApiResponse.success("Balance retrieved successfully", balanceInfo))
+                    .tag(tag)
+                    .build();
         } else {
             throw new AccountNotFoundException("Account not found with ID: " + accountId);
         }
     }
 
+    /**
+     * Apply a balance update for a transaction. The transaction must already be recorded by the
+     * transaction service, because its ledger entry references it. Replaying a transaction
+     * returns the current balance without applying it again.
+     */
+    @POST
+    @Path("/accounts/{accountId}/balance/updates")
+    @RunOnVirtualThread
+    public Response updateAccountBalance(
+            @RestPath
+            @NotNull(message = "Account ID cannot be null") UUID accountId,
+            @NotNull(message = "Request body cannot be null") @Valid BalanceUpdateRequest request) {
+
+        AccountBalanceUpdateResult result =
+                accountUseCases.updateAccountBalance(request.transactionId(), accountId, request.amount());
+        return Response.ok(ApiResponse.success("Balance updated successfully", result)).build();
+    }
+
     /**
      * Update the status of a specific account
      */
@@ -120,15 +310,32 @@ public class AccountResource {
                     .build();
         }
 
-        Optional<Account> accountOpt = accountUseCases.getAccountById(accountId);
-        if (accountOpt.isEmpty()) {
-            throw new AccountNotFoundException("Account not found with ID: " + accountId);
-        }
-
-        Account account = accountOpt.get();
-        account.setStatus(status);
-        Account updatedAccount = accountUseCases.updateAccount(account);
+        Account updatedAccount = accountUseCases.updateAccountStatus(accountId, status);
 
         return Response.ok(ApiResponse.success("Account status updated successfully", updatedAccount)).build();
     }
+
+    /**
+     * Set the number of balance shards of an account, 0 to turn sharding off
+     */
+    @PUT
+    @Path("/accounts/{accountId}/balance-shards")
+    @RunOnVirtualThread
+    @Transactional
+    public Response updateBalanceShards(
+            @RestPath
+            @NotNull(message = "Account ID cannot be null") UUID accountId,
+            @NotNull(message = "Balance shards body cannot be null") Map<String, Integer> shardsUpdate) {
+
+        Integer shards = shardsUpdate.get("shards");
+        if (shards == null) {
+            return Response.status(Response.Status.BAD_REQUEST)
+                    .entity(ApiResponse.error("Shards field is required in the request body"))
+                    .build();
+        }
+
+        accountUseCases.configureBalanceShards(accountId, shards);
+        return Response.ok(ApiResponse.success("Balance shards updated successfully",
+                Map.of("accountId", accountId, "shards", shards))).build();
+    }
 }
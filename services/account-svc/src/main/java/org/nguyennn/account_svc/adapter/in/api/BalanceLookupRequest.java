@@ -0,0 +1,12 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.util.List;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Body of a bulk balance lookup
+ */
+public record BalanceLookupRequest(@NotNull(message = "Account IDs are required") List<UUID> accountIds) {
+}
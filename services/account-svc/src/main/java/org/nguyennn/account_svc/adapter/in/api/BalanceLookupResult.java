@@ -0,0 +1,24 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One entry of a bulk balance lookup: the balance, or an error for an account that does not
+ * exist
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BalanceLookupResult(UUID accountId, BigDecimal balance, String currency, String error) {
+
+    static BalanceLookupResult of(AccountBalance balance) {
+        return new BalanceLookupResult(balance.accountId(), balance.balance(), balance.currency(), null);
+    }
+
+    static BalanceLookupResult notFound(UUID accountId) {
+        return new BalanceLookupResult(accountId, null, null, "NOT_FOUND");
+    }
+}
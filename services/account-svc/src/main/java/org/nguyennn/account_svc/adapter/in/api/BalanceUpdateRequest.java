@@ -0,0 +1,15 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Body of a balance update: the transaction causing it and the signed amount, positive to credit
+ * and negative to debit
+ */
+public record BalanceUpdateRequest(
+        @NotNull(message = "Transaction ID is required") UUID transactionId,
+        @NotNull(message = "Amount is required") BigDecimal amount) {
+}
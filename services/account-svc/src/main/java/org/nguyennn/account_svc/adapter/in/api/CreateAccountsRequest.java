@@ -0,0 +1,31 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.domain.Account;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Body of a bulk account creation. Field validation happens on the resulting accounts, so every
+ * invalid account of the batch is reported at once.
+ */
+public record CreateAccountsRequest(@NotNull(message = "Accounts are required") List<NewAccount> accounts) {
+
+    public record NewAccount(UUID customerId, String accountNumber, Account.AccountType type,
+            BigDecimal balance, String currency, Account.AccountStatus status) {
+
+        Account toDomain() {
+            return Account.builder()
+                    .customerId(customerId)
+                    .accountNumber(accountNumber)
+                    .type(type)
+                    .balance(balance != null ? balance : BigDecimal.ZERO)
+                    .currency(currency)
+                    .status(status != null ? status : Account.AccountStatus.ACTIVE)
+                    .build();
+        }
+    }
+}
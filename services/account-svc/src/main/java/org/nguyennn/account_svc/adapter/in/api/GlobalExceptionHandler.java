@@ -3,6 +3,8 @@ package org.nguyennn.account_svc.adapter.in.api;
 import io.quarkus.logging.Log;
 import jakarta.annotation.Nonnull;
 import jakarta.ws.rs.NotFoundException;
+import org.nguyennn.account_svc.application.exceptions.AccountBalanceUpdateException;
+import org.nguyennn.account_svc.application.exceptions.AccountBatchValidationException;
 import org.nguyennn.account_svc.application.exceptions.AccountNotFoundException;
 
 import jakarta.validation.ConstraintViolation;
@@ -25,6 +27,10 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
                     buildErrorResponse(Response.Status.NOT_FOUND, notFoundException.getMessage(), "route.not.found");
             case AccountNotFoundException ignored ->
                     buildErrorResponse(Response.Status.NOT_FOUND, exception.getMessage(), "entity.not.found");
+            case AccountBalanceUpdateException ignored ->
+                    buildErrorResponse(Response.Status.CONFLICT, exception.getMessage(), "balance.update.rejected");
+            case AccountBatchValidationException batchValidationException ->
+                    handleBatchValidationException(batchValidationException);
             case ConstraintViolationException constraintViolationException ->
                     handleValidationException(constraintViolationException);
             case IllegalArgumentException ignored ->
@@ -58,4 +64,15 @@ public class GlobalExceptionHandler implements ExceptionMapper<Exception> {
         ApiResponse<?> errorResponse = ApiResponse.error("Validation error", errorDetails);
         return Response.status(Response.Status.BAD_REQUEST).entity(errorResponse).build();
     }
-}
\ No newline at end of file
+
+    @Nonnull
+    private Response handleBatchValidationException(AccountBatchValidationException ex) {
+        ErrorDetails errorDetails = new ErrorDetails("validation.error", "request", ex.getMessage());
+        for (AccountBatchValidationException.Violation violation : ex.getViolations()) {
+            errorDetails.addFieldError("accounts[" + violation.index() + "]." + violation.field(), violation.message());
+        }
+
+        ApiResponse<?> errorResponse = ApiResponse.error("Validation error", errorDetails);
+        return Response.status(Response.Status.BAD_REQUEST).entity(errorResponse).build();
+    }
+}
@@ -22,10 +22,40 @@ public record Paginated<T>(
         @NotNull(message = "Metadata cannot be null")
         Metadata metadata) {
 
+    /**
+     * Page metadata: offset pages carry {@code pagination}, keyset pages carry {@code cursor}
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public record Metadata(
-            @NotNull(message = "Pagination information is required")
             @Valid
-            PaginationInfo pagination) {
+            PaginationInfo pagination,
+            @Valid
+            CursorInfo cursor) {
+
+        public Metadata(PaginationInfo pagination) {
+            this(pagination, null);
+        }
+
+        public Metadata(CursorInfo cursor) {
+            this(null, cursor);
+        }
+    }
+
+    /**
+     * Keyset pagination information
+     *
+     * @param limit      page size
+     * @param totalCount total number of items, only present when requested
+     * @param nextCursor opaque cursor of the next page, absent on the last page
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record CursorInfo(
+            @Min(value = 1, message = "Limit must be at least 1")
+            int limit,
+            @PositiveOrZero(message = "Total count cannot be negative")
+            Long totalCount,
+            String nextCursor
+    ) {
     }
 
     public record PaginationInfo(
@@ -0,0 +1,95 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jboss.resteasy.reactive.RestPath;
+import org.nguyennn.account_svc.application.exceptions.AccountNotFoundException;
+import org.nguyennn.account_svc.application.in.ReactiveAccountUseCases;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Event-loop variants of the read endpoints of {@link AccountResource}. Responses are the same;
+ * only the threading model differs, so the two can be load tested side by side.
+ */
+@Path("/api/v1/reactive")
+@Consumes(MediaType.APPLICATION_JSON)
+@Produces(MediaType.APPLICATION_JSON)
+public class ReactiveAccountResource {
+
+    private final ReactiveAccountUseCases reactiveAccountUseCases;
+
+    @Inject
+    public ReactiveAccountResource(ReactiveAccountUseCases reactiveAccountUseCases) {
+        this.reactiveAccountUseCases = reactiveAccountUseCases;
+    }
+
+    @GET
+    @Path("/accounts")
+    public Uni<Response> getAccountByNumber(
+            @NotNull(message = "Account number cannot be null")
+            @QueryParam("accountNumber") String accountNumber) {
+
+        return reactiveAccountUseCases.getAccountByNumber(accountNumber)
+                .map(account -> account
+                        .map(found -> Response.ok(ApiResponse.success("Account retrieved successfully", found)))
+                        .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                                .entity(ApiResponse.error("Account not found with number: " + accountNumber)))
+                        .build());
+    }
+
+    @GET
+    @Path("/accounts/{accountId}")
+    public Uni<Response> getAccountById(
+            @RestPath
+            @NotNull(message = "Account ID cannot be null") UUID accountId) {
+
+        return reactiveAccountUseCases.getAccountById(accountId)
+                .map(account -> account
+                        .map(found -> Response.ok(ApiResponse.success("Account retrieved successfully", found)).build())
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId)));
+    }
+
+    @GET
+    @Path("/accounts/{accountId}/balance")
+    public Uni<Response> getAccountBalance(
+            @RestPath
+            @NotNull(message = "Account ID cannot be null") UUID accountId) {
+
+        return reactiveAccountUseCases.getAccountBalance(accountId)
+                .map(balance -> balance
+                        .map(found -> Response.ok(ApiResponse.success("Balance retrieved successfully", Map.of(
+                                "accountId", found.accountId(),
+                                "balance", found.balance(),
+                                "currency", found.currency()))).build())
+                        .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId)));
+    }
+
+    /**
+     * Check whether an account can cover an amount, without changing its balance
+     */
+    @GET
+    @Path("/accounts/{accountId}/balance/verification")
+    public Uni<Response> verifyAccountBalance(
+            @RestPath
+            @NotNull(message = "Account ID cannot be null") UUID accountId,
+            @NotNull(message = "Amount cannot be null")
+            @DecimalMin(value = "0", inclusive = false, message = "Amount must be positive")
+            @QueryParam("amount") BigDecimal amount) {
+
+        return reactiveAccountUseCases.verifyAccountBalance(accountId, amount)
+                .map(result -> Response.ok(ApiResponse.success(result.message(), result)).build());
+    }
+}
@@ -0,0 +1,63 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import java.time.Duration;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.jboss.resteasy.reactive.server.ServerResponseFilter;
+import org.nguyennn.account_svc.common.ReadConsistency;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
+
+/**
+ * Reads {@code X-Consistency: strong} and the caller's last write time into the request's
+ * {@link ReadConsistency}, and hands a new last write time back to callers whose request wrote.
+ * The cookie outlives the largest lag the replica may have plus one lag check, after which the
+ * replica is either known to have the write or no longer used.
+ */
+public class ReadConsistencyFilter {
+
+    @Inject
+    ReadConsistency readConsistency;
+
+    @ConfigProperty(name = "account-svc.replica.max-lag")
+    Duration maxLag;
+
+    @ConfigProperty(name = "account-svc.replica.lag-check-every")
+    Duration lagCheckEvery;
+
+    @ServerRequestFilter
+    public void readConsistency(ContainerRequestContext requestContext) {
+        if ("strong".equalsIgnoreCase(requestContext.getHeaderString(ReadConsistency.HEADER))) {
+            readConsistency.setStrong(true);
+        }
+        Cookie lastWrite = requestContext.getCookies().get(ReadConsistency.LAST_WRITE_COOKIE);
+        if (lastWrite != null) {
+            try {
+                readConsistency.setLastWriteMillis(Long.parseLong(lastWrite.getValue()));
+            } catch (NumberFormatException e) {
+                // Not ours, treat the caller as having no recent write
+            }
+        }
+    }
+
+    @ServerResponseFilter
+    public void lastWrite(ContainerResponseContext responseContext) {
+        if (!readConsistency.isWritten()) {
+            return;
+        }
+        // Response filters run after the request's transactions have committed
+        NewCookie cookie = new NewCookie.Builder(ReadConsistency.LAST_WRITE_COOKIE)
+                .value(Long.toString(System.currentTimeMillis()))
+                .path("/")
+                .maxAge((int) maxLag.plus(lagCheckEvery).toSeconds() + 1)
+                .httpOnly(true)
+                .build();
+        responseContext.getHeaders().add(HttpHeaders.SET_COOKIE, cookie);
+    }
+}
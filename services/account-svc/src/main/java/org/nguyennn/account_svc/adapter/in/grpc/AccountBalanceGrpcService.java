@@ -0,0 +1,121 @@
+package org.nguyennn.account_svc.adapter.in.grpc;
+
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.adapter.in.grpc.proto.AccountBalanceService;
+import org.nguyennn.account_svc.adapter.in.grpc.proto.VerifyBalanceRequest;
+import org.nguyennn.account_svc.adapter.in.grpc.proto.VerifyBalanceResponse;
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.in.AccountUseCases;
+import org.nguyennn.account_svc.common.FixedPoint;
+
+import io.grpc.Status;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.grpc.GrpcService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
+
+/**
+ * Balance pre-checks over gRPC. Both RPCs only read balances, so a request can safely be sent
+ * again after a timeout.
+ */
+@GrpcService
+public class AccountBalanceGrpcService implements AccountBalanceService {
+
+    private final AccountUseCases accountUseCases;
+    private final Timer verifyBalanceTimer;
+    private final Timer verifyBalancesTimer;
+    private final int streamConcurrency;
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("account-grpc-", 0).factory());
+
+    @Inject
+    public AccountBalanceGrpcService(AccountUseCases accountUseCases, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.grpc.stream-concurrency") int streamConcurrency) {
+        this.accountUseCases = accountUseCases;
+        this.verifyBalanceTimer = verificationTimer(meterRegistry, "VerifyBalance");
+        this.verifyBalancesTimer = verificationTimer(meterRegistry, "VerifyBalances");
+        this.streamConcurrency = streamConcurrency;
+    }
+
+    @Override
+    @RunOnVirtualThread
+    public Uni<VerifyBalanceResponse> verifyBalance(VerifyBalanceRequest request) {
+        try {
+            return Uni.createFrom().item(verifyBalanceTimer.record(() -> verify(request)));
+        } catch (IllegalArgumentException e) {
+            return Uni.createFrom().failure(Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException());
+        }
+    }
+
+    /**
+     * Verifies up to {@code account-svc.grpc.stream-concurrency} requests of a stream at once and
+     * answers each as soon as it is done. An invalid request is answered as not valid instead of
+     * failing the whole stream.
+     */
+    @Override
+    public Multi<VerifyBalanceResponse> verifyBalances(Multi<VerifyBalanceRequest> requests) {
+        return requests.onItem()
+                .transformToUni(request -> Uni.createFrom()
+                        .item(() -> verifyBalancesTimer.record(() -> verifyOrReject(request)))
+                        .runSubscriptionOn(executor))
+                .merge(streamConcurrency);
+    }
+
+    private VerifyBalanceResponse verifyOrReject(VerifyBalanceRequest request) {
+        try {
+            return verify(request);
+        } catch (IllegalArgumentException e) {
+            return VerifyBalanceResponse.newBuilder()
+                    .setTransactionId(request.getTransactionId())
+                    .setAccountId(request.getAccountId())
+                    .setValid(false)
+                    .setMessage("Invalid request: " + e.getMessage())
+                    .setAmount(request.getAmount())
+                    .build();
+        }
+    }
+
+    private VerifyBalanceResponse verify(VerifyBalanceRequest request) {
+        UUID accountId = UUID.fromString(request.getAccountId());
+        if (request.getAmount() <= 0) {
+            throw new IllegalArgumentException("Amount must be positive");
+        }
+
+        AccountBalanceVericationResult result = accountUseCases.verifyAccountBalance(accountId,
+                FixedPoint.toBigDecimal(request.getAmount()));
+        VerifyBalanceResponse.Builder response = VerifyBalanceResponse.newBuilder()
+                .setTransactionId(request.getTransactionId())
+                .setAccountId(result.accountId())
+                .setValid(result.isValid())
+                .setMessage(result.message())
+                .setAmount(result.amount());
+        if (result.customerId() != null) {
+            response.setCustomerId(result.customerId());
+        }
+        if (result.currencyCode() != null) {
+            response.setCurrency(result.currencyCode());
+        }
+        return response.build();
+    }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String method) {
+        return Timer.builder("account.grpc.verification")
+                .description("Time to verify one balance request over gRPC")
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,177 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Limits how many lanes process at once, adapting the limit to the database (AIMD). After every
+ * task the limit is cut by the backoff ratio if threads are waiting for a pool connection, the
+ * average pool wait since the last check is above its target, or the task took longer than the
+ * latency target. Otherwise it grows by one, if it was actually reached. Each direction changes
+ * at most once per adjust interval, so one burst of slow tasks counts once. The limit never
+ * exceeds the lane count, since a lane runs one task at a time.
+ */
+@ApplicationScoped
+public class AdaptiveConcurrencyLimiter {
+
+    private final Supplier<AgroalDataSourceMetrics> poolMetrics;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final long poolWaitTargetNanos;
+    private final double backoffRatio;
+    private final long adjustIntervalNanos;
+    private final Counter increases;
+    private final Counter decreases;
+    private final Counter throttled;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    // Written under the lock, read by the gauge without it
+    private volatile int limit;
+    private int inFlight;
+    private boolean limitReached;
+    private long lastIncrease;
+    private long lastDecrease;
+    private long lastAcquireCount;
+    private long lastBlockingNanos;
+
+    @Inject
+    public AdaptiveConcurrencyLimiter(AgroalDataSource dataSource, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.kafka.lanes") int lanes,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.min") int minLimit,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.max") int maxLimit,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.initial") int initialLimit,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.latency-target") Duration latencyTarget,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.pool-wait-target") Duration poolWaitTarget,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.backoff-ratio") double backoffRatio,
+            @ConfigProperty(name = "account-svc.kafka.concurrency.adjust-interval") Duration adjustInterval) {
+        this(dataSource::getMetrics, meterRegistry, minLimit, Math.min(maxLimit, lanes), initialLimit, latencyTarget,
+                poolWaitTarget, backoffRatio, adjustInterval);
+    }
+
+    AdaptiveConcurrencyLimiter(Supplier<AgroalDataSourceMetrics> poolMetrics, MeterRegistry meterRegistry,
+            int minLimit, int maxLimit, int initialLimit, Duration latencyTarget, Duration poolWaitTarget,
+            double backoffRatio, Duration adjustInterval) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid concurrency limits " + minLimit + ".." + maxLimit);
+        }
+        this.poolMetrics = poolMetrics;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.latencyTargetNanos = latencyTarget.toNanos();
+        this.poolWaitTargetNanos = poolWaitTarget.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.adjustIntervalNanos = adjustInterval.toNanos();
+        long now = System.nanoTime();
+        this.lastIncrease = now;
+        this.lastDecrease = now;
+        Gauge.builder("account.kafka.concurrency.limit", this, limiter -> limiter.limit)
+                .description("Lanes allowed to process at the same time")
+                .register(meterRegistry);
+        this.increases = changes(meterRegistry, "increase");
+        this.decreases = changes(meterRegistry, "decrease");
+        this.throttled = Counter.builder("account.kafka.concurrency.throttled")
+                .description("Tasks that had to wait for the concurrency limit")
+                .register(meterRegistry);
+    }
+
+    private static Counter changes(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("account.kafka.concurrency.changes")
+                .description("Adjustments of the concurrency limit")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Wait until fewer tasks than the limit are running, then count this one in
+     */
+    public void acquire() throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight >= limit) {
+                throttled.increment();
+                do {
+                    released.await();
+                } while (inFlight >= limit);
+            }
+            inFlight++;
+            if (inFlight >= limit) {
+                limitReached = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count a task out and adjust the limit
+     *
+     * @param latencyNanos how long the task took
+     */
+    public void release(long latencyNanos) {
+        lock.lock();
+        try {
+            inFlight--;
+            adjust(latencyNanos);
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void adjust(long latencyNanos) {
+        long now = System.nanoTime();
+        if (poolSaturated() || latencyNanos > latencyTargetNanos) {
+            if (now - lastDecrease >= adjustIntervalNanos) {
+                int decreased = Math.max(minLimit, (int) (limit * backoffRatio));
+                if (decreased < limit) {
+                    limit = decreased;
+                    decreases.increment();
+                }
+                lastDecrease = now;
+                limitReached = false;
+            }
+        } else if (limitReached && limit < maxLimit && now - lastIncrease >= adjustIntervalNanos) {
+            limit++;
+            increases.increment();
+            lastIncrease = now;
+            limitReached = false;
+        }
+    }
+
+    /**
+     * @return whether threads wait for connections now, or waited too long on average since the
+     *         last check
+     */
+    private boolean poolSaturated() {
+        AgroalDataSourceMetrics metrics = poolMetrics.get();
+        if (metrics.awaitingCount() > 0) {
+            return true;
+        }
+        long acquireCount = metrics.acquireCount();
+        long blockingNanos = metrics.blockingTimeTotal().toNanos();
+        long acquired = acquireCount - lastAcquireCount;
+        long blocked = blockingNanos - lastBlockingNanos;
+        lastAcquireCount = acquireCount;
+        lastBlockingNanos = blockingNanos;
+        return acquired > 0 && blocked / acquired > poolWaitTargetNanos;
+    }
+}
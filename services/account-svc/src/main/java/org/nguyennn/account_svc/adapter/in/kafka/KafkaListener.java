@@ -2,51 +2,203 @@ package org.nguyennn.account_svc.adapter.in.kafka;
 
 import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED;
 
-import java.util.UUID;
-import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 
-import org.eclipse.microprofile.faulttolerance.Retry;
 import org.eclipse.microprofile.reactive.messaging.Acknowledgment;
 import org.eclipse.microprofile.reactive.messaging.Incoming;
-import org.nguyennn.account_svc.application.in.AccountUseCases;
-import org.nguyennn.account_svc.common.RetryableException;
+import org.jboss.logging.Logger;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.common.SampledLogger;
+import org.nguyennn.account_svc.common.SampledLoggers;
+import org.nguyennn.account_svc.common.Measured;
 
-import io.quarkus.logging.Log;
-import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.smallrye.reactive.messaging.TracingMetadata;
+import io.smallrye.reactive.messaging.annotations.Blocking;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.KafkaRecordBatch;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
-
-// TODO: implement DeserializationFailureHandler<JsonObject>
 
+@Measured("kafka")
 @ApplicationScoped
 public class KafkaListener {
 
     @Inject
-    AccountUseCases accountUseCases;
+    TransactionInitiatedProcessor processor;
+
+    @Inject
+    KeyOrderedExecutor executor;
+
+    @Inject
+    RetryRouter retryRouter;
+
+    @Inject
+    Tracer tracer;
+
+    @Inject
+    SampledLoggers sampledLoggers;
+
+    private SampledLogger receivedLog;
+    private SampledLogger failureLog;
+
+    @PostConstruct
+    void initLoggers() {
+        receivedLog = sampledLoggers.get(KafkaListener.class, "kafka.received");
+        failureLog = sampledLoggers.get(KafkaListener.class, "kafka.failure");
+    }
 
     /**
-     * This method listens to the Kafka topic for transaction initiation messages. It processes the
-     * message and updates the account balance accordingly.
+     * This method listens to the Kafka topic for batches of transaction initiation messages. The
+     * records of a poll batch are split into lanes by account ID and handed to the
+     * {@link KeyOrderedExecutor}: records of one account are processed strictly in order, records
+     * of different accounts in parallel. Each lane slice is verified in one transaction with a
+     * single account lookup.
+     * <p>
+     * Every record is acked or nacked on its own once its lane is done. The throttled commit
+     * strategy only commits a partition up to its lowest record that is not yet acked, so
+     * out-of-order completion across lanes never skips an unprocessed record. Records that fail
+     * transiently are moved to the delayed retry topics instead of being retried in place, so
+     * they never hold up the partition; see {@link RetryRouter}.
+     *
+     * Payloads are decoded by {@link TransactionInitiatedDeserializer}, which accepts both the
+     * binary format and legacy CSV messages.
      *
-     * @param message The message received from the Kafka topic.
-     * @throws Exception if an error occurs while processing the message.
+     * @param batch The records received from one poll of the Kafka topic.
+     * @return a stage completing once the batch has been dispatched to the lanes.
+     * @throws InterruptedException if interrupted while waiting for lane capacity.
      *
-     * @Transactional ensures that the method is executed within a transaction context.
+     * @Blocking keeps dispatch sequential and off the event loop while it waits for capacity.
      */
-
-    // TODO: https://quarkus.io/guides/messaging-virtual-threads#control-the-maximum-concurrency
-    @RunOnVirtualThread
-    @Transactional
+    @Blocking
     @Incoming(TOPIC_TRANSACTION_INITIATED)
-    @Acknowledgment(Acknowledgment.Strategy.POST_PROCESSING)
-    @Retry(maxRetries = 3, delay = 1000, retryOn = {RetryableException.class})
-    public void onTransactionInitiated(String message) {
-        Log.info("Received message: " + message);
-
-        String[] parts = message.split(",");
-        UUID accountId = UUID.fromString(parts[0]);
-        BigDecimal amount = new BigDecimal(parts[1]);
-        accountUseCases.verifyAccountBalance(accountId, amount);
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onTransactionInitiated(KafkaRecordBatch<String, BalanceVerificationRequest> batch)
+            throws InterruptedException {
+        List<KafkaRecord<String, BalanceVerificationRequest>> received = batch.getRecords();
+        if (receivedLog.isSampled(Logger.Level.INFO)) {
+            receivedLog.log(Logger.Level.INFO, "Received batch", "records", received.size());
+        }
+
+        LaneSlice[] slices = new LaneSlice[executor.laneCount()];
+        for (KafkaRecord<String, BalanceVerificationRequest> record : received) {
+            BalanceVerificationRequest request = record.getPayload();
+            if (request == null) {
+                // Decoding failed, see TransactionInitiatedFailureHandler
+                retryRouter.onMalformed(record);
+                continue;
+            }
+            int lane = executor.laneOf(request.accountId());
+            if (slices[lane] == null) {
+                slices[lane] = new LaneSlice();
+            }
+            slices[lane].add(record, request);
+        }
+
+        for (int lane = 0; lane < slices.length; lane++) {
+            LaneSlice slice = slices[lane];
+            if (slice != null) {
+                executor.execute(lane, slice.size(), () -> process(slice), () -> notProcessed(slice));
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Runs in a span of its own, continuing the trace of the slice's first record and linking
+     * the others. Lanes are plain threads without a trace context, so without it the processing
+     * and persistence histograms recorded here would carry no exemplars.
+     */
+    private void process(LaneSlice slice) {
+        Span span = startSpan(slice);
+        try (Scope scope = span.makeCurrent()) {
+            processor.process(slice.requests);
+            slice.records.forEach(KafkaRecord::ack);
+        } catch (RuntimeException e) {
+            // Isolate the failing record(s) instead of dead-lettering the whole slice
+            if (failureLog.isSampled(Logger.Level.WARN)) {
+                failureLog.log(Logger.Level.WARN, e, "Batch failed, retrying records one by one",
+                        "records", slice.size());
+            }
+            span.recordException(e);
+            try (Scope scope = span.makeCurrent()) {
+                for (int i = 0; i < slice.size(); i++) {
+                    processOne(slice.records.get(i), slice.requests.get(i));
+                }
+            }
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Hands the records of a slice whose lane was interrupted before it ran to the first retry
+     * tier. Left unsettled, they would hold back the committed offset of their partitions.
+     */
+    private void notProcessed(LaneSlice slice) {
+        slice.records.forEach(record -> retryRouter.onNotProcessed(record,
+                new IllegalStateException("Lane interrupted before processing")));
+    }
+
+    private Span startSpan(LaneSlice slice) {
+        SpanBuilder builder = tracer.spanBuilder(TOPIC_TRANSACTION_INITIATED + " process")
+                .setSpanKind(SpanKind.CONSUMER)
+                .setAttribute("messaging.batch.message_count", slice.size());
+        boolean parentSet = false;
+        for (KafkaRecord<String, BalanceVerificationRequest> record : slice.records) {
+            Optional<TracingMetadata> tracing = TracingMetadata.fromMessage(record);
+            if (tracing.isEmpty() || tracing.get().getCurrentContext() == null) {
+                continue;
+            }
+            Context context = tracing.get().getCurrentContext();
+            if (!parentSet) {
+                builder.setParent(context);
+                parentSet = true;
+            } else {
+                builder.addLink(Span.fromContext(context).getSpanContext());
+            }
+        }
+        if (!parentSet) {
+            builder.setNoParent();
+        }
+        return builder.startSpan();
+    }
+
+    private void processOne(KafkaRecord<String, BalanceVerificationRequest> record, BalanceVerificationRequest request) {
+        try {
+            processor.process(List.of(request));
+            record.ack();
+        } catch (RuntimeException e) {
+            failureLog.error(e, "Failed to process transaction", "transaction.id", request.transactionId(),
+                    "account.id", request.accountId());
+            retryRouter.onFailure(record, Optional.of(RetryTier.FIRST), e);
+        }
+    }
+
+    /**
+     * The records of one batch that map to the same lane, in offset order.
+     */
+    private static final class LaneSlice {
+        final List<KafkaRecord<String, BalanceVerificationRequest>> records = new ArrayList<>();
+        final List<BalanceVerificationRequest> requests = new ArrayList<>();
+
+        void add(KafkaRecord<String, BalanceVerificationRequest> record, BalanceVerificationRequest request) {
+            records.add(record);
+            requests.add(request);
+        }
+
+        int size() {
+            return records.size();
+        }
     }
 }
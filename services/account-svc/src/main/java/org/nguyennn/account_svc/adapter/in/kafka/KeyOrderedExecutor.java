@@ -0,0 +1,136 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Runs tasks on a fixed set of single-threaded lanes, each backed by a virtual thread. Tasks
+ * submitted with the same key always land on the same lane and therefore run strictly in
+ * submission order, while tasks for different lanes run in parallel, as many at a time as the
+ * {@link AdaptiveConcurrencyLimiter} allows. The number of records in flight across all lanes is
+ * bounded, so submitters block once the lanes fall behind; a blocked listener stops polling and
+ * the connector pauses its partitions until the lanes catch up.
+ */
+@ApplicationScoped
+public class KeyOrderedExecutor {
+
+    private final ExecutorService[] lanes;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final Counter dispatchBlocked;
+
+    @Inject
+    public KeyOrderedExecutor(MeterRegistry meterRegistry, AdaptiveConcurrencyLimiter limiter,
+            @ConfigProperty(name = "account-svc.kafka.lanes") int laneCount,
+            @ConfigProperty(name = "account-svc.kafka.max-in-flight") int maxInFlight) {
+        this.lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("account-lane-" + i).factory());
+        }
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.limiter = limiter;
+        this.dispatchBlocked = Counter.builder("account.kafka.dispatch.blocked")
+                .description("Dispatches that waited for lane capacity, pausing consumption")
+                .register(meterRegistry);
+        Gauge.builder("account.kafka.lanes.in.flight", this, executor -> executor.inFlight())
+                .description("Records dispatched to the ordered lanes and not yet processed")
+                .register(meterRegistry);
+    }
+
+    public int laneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * @param key the ordering key
+     * @return the lane every task with this key runs on
+     */
+    public int laneOf(Object key) {
+        int h = key.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), lanes.length);
+    }
+
+    /**
+     * Queue a task on a lane, waiting for capacity if too many records are already in flight.
+     *
+     * @param lane          the lane, as returned by {@link #laneOf(Object)}
+     * @param records       the number of records the task covers
+     * @param task          the work to run
+     * @param onInterrupted run instead of the task if the lane is interrupted while the task waits
+     *                      for the concurrency limit, so its records can still be settled
+     * @return a future completing when the task, or its replacement, has run
+     * @throws InterruptedException if interrupted while waiting for capacity
+     */
+    public CompletableFuture<Void> execute(int lane, int records, Runnable task, Runnable onInterrupted)
+            throws InterruptedException {
+        int permits = Math.min(records, maxInFlight);
+        if (!inFlight.tryAcquire(permits)) {
+            dispatchBlocked.increment();
+            inFlight.acquire(permits);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> runLimited(task, onInterrupted), lanes[lane])
+                    .whenComplete((ignored, failure) -> inFlight.release(permits));
+        } catch (RejectedExecutionException e) {
+            inFlight.release(permits);
+            throw e;
+        }
+    }
+
+    private void runLimited(Runnable task, Runnable onInterrupted) {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            // The interrupt status is already cleared, so onInterrupted can still block on I/O
+            try {
+                onInterrupted.run();
+            } finally {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    int inFlight() {
+        return maxInFlight - inFlight.availablePermits();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        try {
+            for (ExecutorService lane : lanes) {
+                if (!lane.awaitTermination(10, TimeUnit.SECONDS)) {
+                    Log.warn("Lane did not drain before shutdown, pending records will be redelivered");
+                    lane.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
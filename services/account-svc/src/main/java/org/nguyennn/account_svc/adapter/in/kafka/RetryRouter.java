@@ -0,0 +1,179 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.nguyennn.account_svc.common.KafkaTopics.CHANNEL_TRANSACTION_INITIATED_RETRY;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.hibernate.exception.JDBCConnectionException;
+import org.hibernate.exception.LockAcquisitionException;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.common.RetryableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.persistence.QueryTimeoutException;
+
+/**
+ * Decides where a record that failed processing goes: transient failures to the next delayed
+ * retry topic, everything else and records out of retries to the dead letter queue. A retried
+ * record is only acked once the retry topic has it, so it cannot be lost in between.
+ */
+@ApplicationScoped
+public class RetryRouter {
+
+    private final Emitter<BalanceVerificationRequest> emitter;
+    private final Duration sendTimeout;
+    private final Map<RetryTier, Counter> retries = new EnumMap<>(RetryTier.class);
+    private final Counter exhausted;
+    private final Counter nonRetryable;
+    private final Counter retryFailed;
+    private final Counter malformed;
+
+    @Inject
+    public RetryRouter(@Channel(CHANNEL_TRANSACTION_INITIATED_RETRY) Emitter<BalanceVerificationRequest> emitter,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.kafka.retry.send-timeout") Duration sendTimeout) {
+        this.emitter = emitter;
+        this.sendTimeout = sendTimeout;
+        for (RetryTier tier : RetryTier.values()) {
+            retries.put(tier, Counter.builder("account.kafka.retries")
+                    .description("Records sent to a delayed retry topic")
+                    .tag("tier", tier.delay().toSeconds() + "s")
+                    .register(meterRegistry));
+        }
+        this.exhausted = deadLetters(meterRegistry, "exhausted");
+        this.nonRetryable = deadLetters(meterRegistry, "non-retryable");
+        this.retryFailed = deadLetters(meterRegistry, "retry-send-failed");
+        this.malformed = deadLetters(meterRegistry, "malformed");
+    }
+
+    private static Counter deadLetters(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("account.kafka.dead.letters")
+                .description("Records sent to the dead letter queue")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Route a record whose processing failed
+     *
+     * @param record  the failed record
+     * @param tier    the retry tier to use next, empty if the record is out of retries
+     * @param failure why processing failed
+     */
+    public void onFailure(KafkaRecord<String, BalanceVerificationRequest> record, Optional<RetryTier> tier,
+            Throwable failure) {
+        if (!isRetryable(failure)) {
+            nonRetryable.increment();
+            record.nack(failure);
+            return;
+        }
+        if (tier.isEmpty()) {
+            exhausted.increment();
+            record.nack(failure);
+            return;
+        }
+        retry(tier.get(), record, failure);
+    }
+
+    /**
+     * Send a record that was never processed, for example because its lane was interrupted
+     * before it started, to the first retry tier
+     *
+     * @param record the record
+     * @param reason why it was not processed
+     */
+    public void onNotProcessed(KafkaRecord<String, BalanceVerificationRequest> record, Throwable reason) {
+        retry(RetryTier.FIRST, record, reason);
+    }
+
+    private void retry(RetryTier tier, KafkaRecord<String, BalanceVerificationRequest> record, Throwable failure) {
+        try {
+            send(tier, record);
+        } catch (IllegalStateException e) {
+            failure.addSuppressed(e);
+            retryFailed.increment();
+            record.nack(failure);
+            return;
+        }
+        retries.get(tier).increment();
+        record.ack();
+    }
+
+    /**
+     * Dead-letter a record that could not be decoded
+     */
+    public void onMalformed(KafkaRecord<String, BalanceVerificationRequest> record) {
+        malformed.increment();
+        record.nack(new IllegalArgumentException("Malformed transaction-initiated message"));
+    }
+
+    private void send(RetryTier tier, KafkaRecord<String, BalanceVerificationRequest> record) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        OutgoingKafkaRecordMetadata<String> metadata = OutgoingKafkaRecordMetadata.<String>builder()
+                .withTopic(tier.topic())
+                .withKey(record.getKey())
+                .build();
+        emitter.send(Message.of(record.getPayload(), Metadata.of(metadata),
+                () -> {
+                    ack.complete(null);
+                    return CompletableFuture.completedFuture(null);
+                },
+                failure -> {
+                    ack.completeExceptionally(failure);
+                    return CompletableFuture.completedFuture(null);
+                }));
+        try {
+            ack.get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending to " + tier.topic(), e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge record on " + tier.topic(), e);
+        }
+    }
+
+    /**
+     * Transient failures are worth retrying later: lock and statement timeouts, deadlocks and
+     * serialization failures, and lost connections
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable t = failure; t != null; t = t.getCause()) {
+            if (t instanceof RetryableException
+                    || t instanceof JDBCConnectionException
+                    || t instanceof LockAcquisitionException
+                    || t instanceof LockTimeoutException
+                    || t instanceof PessimisticLockException
+                    || t instanceof QueryTimeoutException
+                    || t instanceof SQLTransientException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null
+                    // Connection exceptions and transaction rollbacks (serialization failure, deadlock)
+                    && (sql.getSQLState().startsWith("08") || sql.getSQLState().startsWith("40"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,43 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_10S;
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_1S;
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_60S;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Delayed retry topics for transaction-initiated records, tried in order. A record is consumed
+ * from a tier's topic once its delay has passed since it was written there.
+ */
+enum RetryTier {
+
+    FIRST(TOPIC_TRANSACTION_INITIATED_RETRY_1S, Duration.ofSeconds(1)),
+    SECOND(TOPIC_TRANSACTION_INITIATED_RETRY_10S, Duration.ofSeconds(10)),
+    THIRD(TOPIC_TRANSACTION_INITIATED_RETRY_60S, Duration.ofSeconds(60));
+
+    private final String topic;
+    private final Duration delay;
+
+    RetryTier(String topic, Duration delay) {
+        this.topic = topic;
+        this.delay = delay;
+    }
+
+    String topic() {
+        return topic;
+    }
+
+    Duration delay() {
+        return delay;
+    }
+
+    /**
+     * @return the tier to use when this one fails again, empty for the last one
+     */
+    Optional<RetryTier> next() {
+        int next = ordinal() + 1;
+        return next < values().length ? Optional.of(values()[next]) : Optional.empty();
+    }
+}
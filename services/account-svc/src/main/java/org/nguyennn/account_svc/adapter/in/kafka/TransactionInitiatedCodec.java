@@ -0,0 +1,133 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.math.BigDecimal;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.common.FixedPoint;
+
+/**
+ * Wire format of transaction-initiated messages.
+ * <p>
+ * Version 1 is a fixed 44 byte big-endian layout:
+ * <pre>
+ * offset  size  field
+ *      0     1  version (0x01)
+ *      1    16  account ID (most, least significant bits)
+ *     17     8  amount, fixed point with {@link FixedPoint#SCALE} decimals
+ *     25     3  ISO 4217 currency code, ASCII
+ *     28    16  transaction ID, also the idempotency key
+ * </pre>
+ * Legacy messages are CSV text, {@code accountId,amount[,transactionId]}. They always start with
+ * a hex digit, so the first byte tells the two formats apart.
+ */
+public final class TransactionInitiatedCodec {
+
+    public static final byte VERSION_1 = 0x01;
+    public static final int VERSION_1_LENGTH = 44;
+
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /**
+     * Currency codes are decoded once per distinct code, indexed by their three letters.
+     */
+    private static final String[] CURRENCIES = new String[26 * 26 * 26];
+
+    private TransactionInitiatedCodec() {
+    }
+
+    /**
+     * Encode a request in the binary format, or as legacy CSV if it has no transaction ID or
+     * currency.
+     *
+     * @throws IllegalArgumentException if the amount has no exact fixed-point representation or
+     *                                  the currency code is invalid
+     */
+    public static byte[] encode(BalanceVerificationRequest request) {
+        if (request.transactionId() == null || request.currency() == null) {
+            return encodeCsv(request);
+        }
+        byte[] data = new byte[VERSION_1_LENGTH];
+        data[0] = VERSION_1;
+        LONG.set(data, 1, request.accountId().getMostSignificantBits());
+        LONG.set(data, 9, request.accountId().getLeastSignificantBits());
+        LONG.set(data, 17, FixedPoint.toLong(request.amount()));
+        String currency = request.currency();
+        if (currency.length() != 3) {
+            throw new IllegalArgumentException("Invalid currency code: " + currency);
+        }
+        for (int i = 0; i < 3; i++) {
+            data[25 + i] = (byte) currency.charAt(i);
+        }
+        LONG.set(data, 28, request.transactionId().getMostSignificantBits());
+        LONG.set(data, 36, request.transactionId().getLeastSignificantBits());
+        return data;
+    }
+
+    private static byte[] encodeCsv(BalanceVerificationRequest request) {
+        String message = request.accountId() + "," + FixedPoint.requireExact(request.amount()).toPlainString()
+                + (request.transactionId() != null ? "," + request.transactionId() : "");
+        return message.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Decode a message in either format. Amounts with more decimals than {@link FixedPoint#SCALE}
+     * are rejected here, so every decoded request can be verified and encoded again for a retry.
+     *
+     * @throws IllegalArgumentException if the message is malformed
+     */
+    public static BalanceVerificationRequest decode(byte[] data) {
+        if (data == null || data.length == 0) {
+            throw new IllegalArgumentException("Empty transaction-initiated message");
+        }
+        if (data[0] == VERSION_1) {
+            return decodeVersion1(data);
+        }
+        return decodeCsv(new String(data, StandardCharsets.US_ASCII));
+    }
+
+    private static BalanceVerificationRequest decodeVersion1(byte[] data) {
+        if (data.length != VERSION_1_LENGTH) {
+            throw new IllegalArgumentException("Expected " + VERSION_1_LENGTH + " bytes, got " + data.length);
+        }
+        UUID accountId = new UUID((long) LONG.get(data, 1), (long) LONG.get(data, 9));
+        BigDecimal amount = FixedPoint.toBigDecimal((long) LONG.get(data, 17));
+        String currency = currency(data[25], data[26], data[27]);
+        UUID transactionId = new UUID((long) LONG.get(data, 28), (long) LONG.get(data, 36));
+        return new BalanceVerificationRequest(transactionId, accountId, amount, currency);
+    }
+
+    private static String currency(byte first, byte second, byte third) {
+        int a = first - 'A';
+        int b = second - 'A';
+        int c = third - 'A';
+        if ((a | b | c) < 0 || a >= 26 || b >= 26 || c >= 26) {
+            throw new IllegalArgumentException("Invalid currency code");
+        }
+        int index = (a * 26 + b) * 26 + c;
+        String currency = CURRENCIES[index];
+        if (currency == null) {
+            // Racy publication is fine, every thread computes an equal immutable String
+            currency = new String(new byte[] {first, second, third}, StandardCharsets.US_ASCII);
+            CURRENCIES[index] = currency;
+        }
+        return currency;
+    }
+
+    static BalanceVerificationRequest decodeCsv(String message) {
+        int first = message.indexOf(',');
+        if (first < 0) {
+            throw new IllegalArgumentException("Malformed transaction-initiated message");
+        }
+        int second = message.indexOf(',', first + 1);
+        UUID accountId = UUID.fromString(message.substring(0, first));
+        BigDecimal amount = FixedPoint.requireExact(
+                new BigDecimal(message.substring(first + 1, second < 0 ? message.length() : second)));
+        UUID transactionId = second < 0 ? null : UUID.fromString(message.substring(second + 1));
+        return new BalanceVerificationRequest(transactionId, accountId, amount, null);
+    }
+}
@@ -0,0 +1,16 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import org.apache.kafka.common.serialization.Deserializer;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+
+/**
+ * Kafka deserializer for transaction-initiated messages, accepting both the binary and the
+ * legacy CSV format.
+ */
+public class TransactionInitiatedDeserializer implements Deserializer<BalanceVerificationRequest> {
+
+    @Override
+    public BalanceVerificationRequest deserialize(String topic, byte[] data) {
+        return TransactionInitiatedCodec.decode(data);
+    }
+}
@@ -0,0 +1,41 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import org.apache.kafka.common.header.Headers;
+import org.jboss.logging.Logger;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.common.SampledLogger;
+import org.nguyennn.account_svc.common.SampledLoggers;
+
+import io.smallrye.common.annotation.Identifier;
+import io.smallrye.reactive.messaging.kafka.DeserializationFailureHandler;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Turns undecodable transaction-initiated messages into {@code null} payloads instead of failing
+ * the channel. The listener nacks such records, which sends them to the dead letter queue along
+ * with the deserialization failure headers.
+ */
+@ApplicationScoped
+@Identifier(TransactionInitiatedFailureHandler.NAME)
+public class TransactionInitiatedFailureHandler implements DeserializationFailureHandler<BalanceVerificationRequest> {
+
+    public static final String NAME = "transaction-initiated-failure";
+
+    private final SampledLogger failureLog;
+
+    @Inject
+    public TransactionInitiatedFailureHandler(SampledLoggers sampledLoggers) {
+        this.failureLog = sampledLoggers.get(TransactionInitiatedFailureHandler.class, "kafka.decode-failure");
+    }
+
+    @Override
+    public BalanceVerificationRequest handleDeserializationFailure(String topic, boolean isKey, String deserializer,
+            byte[] data, Exception exception, Headers headers) {
+        if (failureLog.isSampled(Logger.Level.WARN)) {
+            failureLog.log(Logger.Level.WARN, "Failed to decode message", "topic", topic,
+                    "reason", exception.getMessage());
+        }
+        return null;
+    }
+}
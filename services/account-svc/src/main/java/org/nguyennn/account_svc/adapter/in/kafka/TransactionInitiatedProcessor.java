@@ -0,0 +1,43 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import java.util.List;
+
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.application.in.AccountUseCases;
+import org.nguyennn.account_svc.application.out.event_bus.AccountValidationPublisher;
+import org.nguyennn.account_svc.common.Measured;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Transactional boundary for transaction-initiated processing, kept apart from the listener so
+ * that a whole poll batch commits once.
+ */
+@Measured("kafka")
+@ApplicationScoped
+public class TransactionInitiatedProcessor {
+
+    @Inject
+    AccountUseCases accountUseCases;
+
+    @Inject
+    AccountValidationPublisher accountValidationPublisher;
+
+    /**
+     * Verify a batch of requests in a single transaction. The results are published through the
+     * outbox in that same transaction. Failures are not retried in place: the listeners send
+     * records that fail transiently to the delayed retry topics, see {@link RetryRouter}.
+     *
+     * @param requests the parsed requests, in record order
+     * @return one result per request
+     */
+    @Transactional
+    public List<AccountBalanceVericationResult> process(List<BalanceVerificationRequest> requests) {
+        List<AccountBalanceVericationResult> results = accountUseCases.verifyAccountBalances(requests);
+        accountValidationPublisher.publish(results);
+        return results;
+    }
+}
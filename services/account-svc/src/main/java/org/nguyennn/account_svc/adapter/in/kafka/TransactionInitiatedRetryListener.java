@@ -0,0 +1,88 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_10S;
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_1S;
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_TRANSACTION_INITIATED_RETRY_60S;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.reactive.messaging.Acknowledgment;
+import org.eclipse.microprofile.reactive.messaging.Incoming;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.common.Measured;
+
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Consumes the delayed retry topics. Records of a tier all wait the same delay and are appended
+ * in time order, so each listener only has to wait for the record at the head of its partition
+ * to come due. The wait holds back that retry topic alone, never the main topic. It is a timer,
+ * not a parked thread: each handler returns at once with a stage that a virtual thread completes
+ * once the record is due, and the channel hands over its next record after that. Records fetched
+ * meanwhile stay in the connector's bounded queue, which pauses the consumer when full.
+ */
+@Measured("kafka")
+@ApplicationScoped
+public class TransactionInitiatedRetryListener {
+
+    @Inject
+    TransactionInitiatedProcessor processor;
+
+    @Inject
+    RetryRouter retryRouter;
+
+    @Inject
+    @VirtualThreads
+    ExecutorService executor;
+
+    @Incoming(TOPIC_TRANSACTION_INITIATED_RETRY_1S)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onFirstRetry(KafkaRecord<String, BalanceVerificationRequest> record) {
+        return retry(RetryTier.FIRST, record);
+    }
+
+    @Incoming(TOPIC_TRANSACTION_INITIATED_RETRY_10S)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onSecondRetry(KafkaRecord<String, BalanceVerificationRequest> record) {
+        return retry(RetryTier.SECOND, record);
+    }
+
+    @Incoming(TOPIC_TRANSACTION_INITIATED_RETRY_60S)
+    @Acknowledgment(Acknowledgment.Strategy.MANUAL)
+    public CompletionStage<Void> onThirdRetry(KafkaRecord<String, BalanceVerificationRequest> record) {
+        return retry(RetryTier.THIRD, record);
+    }
+
+    private CompletionStage<Void> retry(RetryTier tier, KafkaRecord<String, BalanceVerificationRequest> record) {
+        BalanceVerificationRequest request = record.getPayload();
+        if (request == null) {
+            retryRouter.onMalformed(record);
+            return CompletableFuture.completedFuture(null);
+        }
+        long remaining = Duration.between(Instant.now(), record.getTimestamp().plus(tier.delay())).toMillis();
+        Executor due = remaining > 0
+                ? CompletableFuture.delayedExecutor(remaining, TimeUnit.MILLISECONDS, executor)
+                : executor;
+        return CompletableFuture.runAsync(() -> process(tier, record, request), due);
+    }
+
+    private void process(RetryTier tier, KafkaRecord<String, BalanceVerificationRequest> record,
+            BalanceVerificationRequest request) {
+        try {
+            processor.process(List.of(request));
+            record.ack();
+        } catch (RuntimeException e) {
+            retryRouter.onFailure(record, tier.next(), e);
+        }
+    }
+}
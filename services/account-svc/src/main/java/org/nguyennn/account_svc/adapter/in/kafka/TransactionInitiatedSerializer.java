@@ -0,0 +1,16 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import org.apache.kafka.common.serialization.Serializer;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+
+/**
+ * Kafka serializer for transaction-initiated messages, used when records are forwarded to the
+ * dead letter queue.
+ */
+public class TransactionInitiatedSerializer implements Serializer<BalanceVerificationRequest> {
+
+    @Override
+    public byte[] serialize(String topic, BalanceVerificationRequest data) {
+        return data == null ? null : TransactionInitiatedCodec.encode(data);
+    }
+}
@@ -0,0 +1,109 @@
+package org.nguyennn.account_svc.adapter.out.cache;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.out.cache.AccountBalanceCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Caffeine backed balance cache. Caffeine's W-TinyLFU policy keeps frequently read accounts
+ * resident when the cache is full, and hit/miss/eviction statistics are bound to Micrometer.
+ * <p>
+ * Every invalidation bumps a counter for the account's stripe. A loaded balance is only cached
+ * if its stripe's counter has not moved since the load began, and the check runs under the
+ * entry's lock, so an invalidation either prevents the put or removes what it wrote.
+ */
+@ApplicationScoped
+public class CaffeineAccountBalanceCache implements AccountBalanceCache {
+
+    static final String CACHE_NAME = "account-balance";
+
+    /** Invalidations of unrelated accounts in the same stripe only cost a skipped put */
+    private static final int STRIPES = 1024;
+
+    private final Cache<UUID, AccountBalance> cache;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    @Inject
+    public CaffeineAccountBalanceCache(MeterRegistry meterRegistry,
+            TransactionSynchronizationRegistry transactionRegistry,
+            @ConfigProperty(name = "account-svc.cache.balance.maximum-size") long maximumSize,
+            @ConfigProperty(name = "account-svc.cache.balance.expire-after-write") Duration expireAfterWrite) {
+        this.transactionRegistry = transactionRegistry;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    @Override
+    public Optional<AccountBalance> get(UUID accountId) {
+        return Optional.ofNullable(cache.getIfPresent(accountId));
+    }
+
+    @Override
+    public long beginLoad(UUID accountId) {
+        return invalidations.get(stripe(accountId));
+    }
+
+    @Override
+    public void putLoaded(AccountBalance balance, long stamp) {
+        int stripe = stripe(balance.accountId());
+        cache.asMap().compute(balance.accountId(),
+                (accountId, cached) -> invalidations.get(stripe) == stamp ? balance : cached);
+    }
+
+    @Override
+    public void invalidate(UUID accountId) {
+        evict(accountId);
+        if (isTransactionActive()) {
+            // A concurrent reader may load the old value before this transaction commits
+            transactionRegistry.registerInterposedSynchronization(new AfterCompletion(status -> evict(accountId)));
+        }
+    }
+
+    private void evict(UUID accountId) {
+        // Bumped first: a put that checks afterwards is refused, one that checked before is removed
+        invalidations.incrementAndGet(stripe(accountId));
+        cache.invalidate(accountId);
+    }
+
+    private static int stripe(UUID accountId) {
+        return Math.floorMod(accountId.hashCode(), STRIPES);
+    }
+
+    private boolean isTransactionActive() {
+        return transactionRegistry.getTransactionStatus() == Status.STATUS_ACTIVE;
+    }
+
+    private record AfterCompletion(IntConsumer action) implements Synchronization {
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            action.accept(status);
+        }
+    }
+}
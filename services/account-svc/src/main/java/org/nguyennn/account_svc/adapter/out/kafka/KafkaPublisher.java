@@ -1,8 +1,203 @@
 package org.nguyennn.account_svc.adapter.out.kafka;
 
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_ACCOUNT_VALIDATED;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.reactive.messaging.Channel;
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.eclipse.microprofile.reactive.messaging.Metadata;
+import org.eclipse.microprofile.reactive.messaging.OnOverflow;
+import org.nguyennn.account_svc.adapter.out.persistence.OutboxMessage;
+import org.nguyennn.account_svc.adapter.out.persistence.OutboxRepository;
+import org.postgresql.PGConnection;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
 
+/**
+ * Relays the outbox table to Kafka. The relay blocks on a LISTEN connection and drains the table
+ * in batches as soon as Postgres notifies it of committed messages; the poll interval is only a
+ * fallback in case a notification was missed. A batch is deleted in the same transaction that
+ * waits for its Kafka acks, so messages are only removed once the broker has them; a failed batch
+ * is sent again later. Several pods can relay at once; {@link OutboxRepository#claim} keeps every
+ * key in order between them.
+ */
 @ApplicationScoped
 public class KafkaPublisher {
-    
+
+    private static final String NOTIFY_CHANNEL = "account_outbox";
+
+    private final OutboxRepository outboxRepository;
+    private final AgroalDataSource dataSource;
+    private final Emitter<String> emitter;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration sendTimeout;
+    private final boolean enabled;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+
+    private volatile boolean running = true;
+    private Thread relay;
+
+    /**
+     * Every batch waits for its acks before the next one is sent, so the emitter never buffers
+     * more than one batch.
+     */
+    @Inject
+    public KafkaPublisher(OutboxRepository outboxRepository, AgroalDataSource dataSource,
+            @Channel(TOPIC_ACCOUNT_VALIDATED) @OnOverflow(OnOverflow.Strategy.UNBOUNDED_BUFFER) Emitter<String> emitter,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.outbox.batch-size") int batchSize,
+            @ConfigProperty(name = "account-svc.outbox.poll-interval") Duration pollInterval,
+            @ConfigProperty(name = "account-svc.outbox.send-timeout") Duration sendTimeout,
+            @ConfigProperty(name = "account-svc.outbox.relay-enabled") boolean enabled) {
+        this.outboxRepository = outboxRepository;
+        this.dataSource = dataSource;
+        this.emitter = emitter;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.sendTimeout = sendTimeout;
+        this.enabled = enabled;
+        this.batchSizes = DistributionSummary.builder("account.outbox.relay.batch.size")
+                .description("Messages published per relay batch")
+                .register(meterRegistry);
+        this.lag = Timer.builder("account.outbox.relay.lag")
+                .description("Time from writing a message to the outbox until Kafka acknowledged it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            Log.info("Outbox relay disabled");
+            return;
+        }
+        relay = Thread.ofVirtual().name("account-outbox-relay").start(this::run);
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection listener = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + NOTIFY_CHANNEL);
+                }
+                while (running) {
+                    drain();
+                    awaitNotification(listener);
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    Log.warn("Outbox listener connection failed, reconnecting", e);
+                    pause();
+                }
+            }
+        }
+    }
+
+    /**
+     * Block until Postgres delivers a notification. Notifications that arrived while draining are
+     * already pending on the connection and return at once, so a commit is never left waiting for
+     * the poll interval.
+     */
+    private void awaitNotification(PGConnection listener) throws SQLException {
+        listener.getNotifications((int) pollInterval.toMillis());
+    }
+
+    private void drain() {
+        try {
+            int published;
+            do {
+                published = QuarkusTransaction.requiringNew().call(this::publishBatch);
+            } while (published == batchSize && running);
+        } catch (RuntimeException e) {
+            // The batch was rolled back and stays in the outbox until the next wake-up
+            Log.warn("Failed to relay outbox batch", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxMessage> messages = outboxRepository.claim(batchSize);
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        CompletableFuture<?>[] acks = new CompletableFuture<?>[messages.size()];
+        for (int i = 0; i < messages.size(); i++) {
+            acks[i] = send(messages.get(i));
+        }
+        try {
+            CompletableFuture.allOf(acks).get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Kafka acks", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch", e);
+        }
+
+        Instant now = Instant.now();
+        for (OutboxMessage message : messages) {
+            lag.record(Duration.between(message.createdAt(), now));
+        }
+        batchSizes.record(messages.size());
+        return messages.size();
+    }
+
+    private CompletableFuture<Void> send(OutboxMessage message) {
+        CompletableFuture<Void> ack = new CompletableFuture<>();
+        OutgoingKafkaRecordMetadata<String> metadata = OutgoingKafkaRecordMetadata.<String>builder()
+                .withTopic(message.topic())
+                .withKey(message.key())
+                .build();
+        emitter.send(Message.of(message.payload(), Metadata.of(metadata),
+                () -> {
+                    ack.complete(null);
+                    return CompletableFuture.completedFuture(null);
+                },
+                failure -> {
+                    ack.completeExceptionally(failure);
+                    return CompletableFuture.completedFuture(null);
+                }));
+        return ack;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(pollInterval);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        running = false;
+        if (relay != null) {
+            relay.interrupt();
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package org.nguyennn.account_svc.adapter.out.kafka;
+
+import static org.nguyennn.account_svc.common.KafkaTopics.TOPIC_ACCOUNT_VALIDATED;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.nguyennn.account_svc.adapter.out.persistence.OutboxRepository;
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.out.event_bus.AccountValidationPublisher;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Writes validation results to the outbox table in the caller's transaction. {@link KafkaPublisher}
+ * relays them to Kafka after commit, keyed by account ID.
+ */
+@ApplicationScoped
+public class OutboxAccountValidationPublisher implements AccountValidationPublisher {
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Inject
+    public OutboxAccountValidationPublisher(OutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(Transactional.TxType.MANDATORY)
+    public void publish(List<AccountBalanceVericationResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(results.size());
+        List<String> payloads = new ArrayList<>(results.size());
+        for (AccountBalanceVericationResult result : results) {
+            keys.add(result.accountId());
+            try {
+                payloads.add(objectMapper.writeValueAsString(result));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to serialize validation result", e);
+            }
+        }
+        outboxRepository.append(TOPIC_ACCOUNT_VALIDATED, keys, payloads);
+    }
+}
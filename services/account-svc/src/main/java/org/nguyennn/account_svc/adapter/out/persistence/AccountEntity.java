@@ -4,17 +4,20 @@ import java.math.BigDecimal;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.nguyennn.account_svc.domain.Account;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.NotNull;
@@ -22,12 +25,19 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.constraints.Size;
 
+/**
+ * Cached in the second-level cache by ID and by account number. Statements that change the row
+ * without Hibernate must evict it, see {@link AccountRepository}.
+ */
 @Entity
 @Table(name = "accounts")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class AccountEntity extends PanacheEntityBase {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7Id
     @Column(name = "account_id")
     private UUID id;
 
@@ -36,6 +46,7 @@ public class AccountEntity extends PanacheEntityBase {
     private UUID customerId;
 
     @NotNull
+    @NaturalId(mutable = true)
     @Column(name = "account_number", nullable = false, unique = true)
     @Size(min = 5, max = 50)
     private String accountNumber;
@@ -61,6 +72,13 @@ public class AccountEntity extends PanacheEntityBase {
     @Column(name = "status", nullable = false, columnDefinition = "account_status_enum")
     private AccountStatus status;
 
+    /**
+     * Number of balance shards credits are spread over, 0 when the balance lives only in this row.
+     * Managed with dedicated statements, never through the entity.
+     */
+    @Column(name = "balance_shards", nullable = false, insertable = false, updatable = false)
+    private short balanceShards;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private ZonedDateTime createdAt;
@@ -70,12 +88,19 @@ public class AccountEntity extends PanacheEntityBase {
     private ZonedDateTime updatedAt;
 
     public Account toDomain() {
+        return toDomain(BigDecimal.ZERO);
+    }
+
+    /**
+     * @param shardBalance the sum of the account's balance shards, added to the account row balance
+     */
+    public Account toDomain(BigDecimal shardBalance) {
         return Account.builder()
                 .id(this.id)
                 .customerId(this.customerId)
                 .accountNumber(this.accountNumber)
                 .type(Account.AccountType.valueOf(this.type.name()))
-                .balance(this.balance)
+                .balance(shardBalance.signum() == 0 ? this.balance : this.balance.add(shardBalance))
                 .currency(this.currency)
                 .status(Account.AccountStatus.valueOf(this.status.name()))
                 .createdAt(this.createdAt != null ? this.createdAt.toInstant() : null)
@@ -109,4 +134,8 @@ public class AccountEntity extends PanacheEntityBase {
     public UUID getId() {
         return id;
     }
+
+    public boolean isSharded() {
+        return balanceShards > 0;
+    }
 }
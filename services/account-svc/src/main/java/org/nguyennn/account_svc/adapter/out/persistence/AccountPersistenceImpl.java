@@ -1,60 +1,243 @@
 package org.nguyennn.account_svc.adapter.out.persistence;
 
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
 import org.nguyennn.account_svc.application.dto.CustomerAccounts;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
 import org.nguyennn.account_svc.application.out.persistence.AccountPersistencePort;
+import org.nguyennn.account_svc.common.Measured;
 import org.nguyennn.account_svc.domain.Account;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+@Measured("persistence")
 @ApplicationScoped
 public class AccountPersistenceImpl implements AccountPersistencePort {
 
     @Inject
     private AccountRepository accountRepository;
 
+    @Inject
+    LedgerWriter ledgerWriter;
+
+    @Inject
+    BalanceCheckpointRepository balanceCheckpointRepository;
+
+    @Inject
+    ReadRouter readRouter;
+
+    @Inject
+    ReplicaAccountReader replicaAccountReader;
+
+    @ConfigProperty(name = "account-svc.accounts.batch.copy-threshold")
+    int batchCopyThreshold;
+
+    @ConfigProperty(name = "account-svc.export.fetch-size")
+    int exportFetchSize;
+
+    @ConfigProperty(name = "account-svc.export.transaction-timeout")
+    Duration exportTransactionTimeout;
+
 
     @Override
     public Account saveAccount(Account account) {
+        readRouter.recordWrite();
+        if (account.getId() != null) {
+            // The account's balance is the total including shards, so fold them in before writing it
+            accountRepository.consolidateShards(account.getId());
+        }
         AccountEntity entity = AccountEntity.fromDomain(account);
         AccountEntity savedEntity = accountRepository.save(entity);
         return savedEntity.toDomain();
     }
 
+    @Override
+    public List<Account> saveAccounts(List<Account> accounts) {
+        readRouter.recordWrite();
+        OffsetDateTime now = OffsetDateTime.now();
+        accountRepository.insertAll(accounts, now, batchCopyThreshold);
+        Instant createdAt = now.toInstant();
+        return accounts.stream()
+                .map(account -> account.toBuilder().createdAt(createdAt).updatedAt(createdAt).build())
+                .toList();
+    }
+
+    @Override
+    public Set<String> findExistingAccountNumbers(Collection<String> accountNumbers) {
+        return accountNumbers.isEmpty() ? Set.of() : accountRepository.findExistingAccountNumbers(accountNumbers);
+    }
+
+    @Override
+    public Set<UUID> findExistingCustomerIds(Collection<UUID> customerIds) {
+        return customerIds.isEmpty() ? Set.of() : accountRepository.findExistingCustomerIds(customerIds);
+    }
+
     @Override
     public Optional<Account> findById(UUID id) {
+        // Served from the second-level cache for hot accounts, so not routed to the replica
         AccountEntity entity = accountRepository.findById(id);
-        return entity != null ? Optional.of(entity.toDomain()) : Optional.empty();
+        return entity != null ? Optional.of(toDomain(entity)) : Optional.empty();
+    }
+
+    @Override
+    public List<Account> findAllByIds(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return toDomain(accountRepository.findAllByIds(ids));
+    }
+
+    @Override
+    public Optional<AccountBalance> findBalance(UUID id) {
+        // Feeds the balance cache and single verifications, so always read from the primary
+        return accountRepository.findBalance(id);
+    }
+
+    @Override
+    public List<AccountBalance> findBalances(Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        if (readRouter.useReplica()) {
+            return replicaAccountReader.findBalances(ids);
+        }
+        return accountRepository.findBalances(ids);
+    }
+
+    @Override
+    public Optional<HistoricalBalance> findBalanceAt(UUID id, OffsetDateTime asOf) {
+        if (readRouter.useReplica()) {
+            return replicaAccountReader.findBalanceAt(id, asOf);
+        }
+        return balanceCheckpointRepository.findBalanceAt(id, asOf);
+    }
+
+    @Override
+    public Optional<AccountBalanceUpdateResult> updateBalance(UUID transactionId, UUID accountId, BigDecimal delta) {
+        readRouter.recordWrite();
+        if (QuarkusTransaction.isActive()) {
+            // The caller's transaction owns the commit, so the update has to be part of it
+            return accountRepository.applyBalanceUpdate(transactionId, accountId, delta);
+        }
+        return ledgerWriter.apply(transactionId, accountId, delta);
+    }
+
+    @Override
+    public Optional<Account> updateStatus(UUID accountId, Account.AccountStatus status) {
+        readRouter.recordWrite();
+        return accountRepository.updateStatus(accountId, status).map(this::toDomain);
+    }
+
+    @Override
+    public boolean configureBalanceShards(UUID accountId, int shards) {
+        readRouter.recordWrite();
+        return accountRepository.configureShards(accountId, shards);
+    }
+
+    @Override
+    public boolean hasLedgerEntry(UUID transactionId, UUID accountId) {
+        return accountRepository.hasLedgerEntry(transactionId, accountId);
     }
 
     @Override
     public Account findByAccountNumber(String accountNumber) {
         AccountEntity entity = accountRepository.findByAccountNumber(accountNumber);
-        return entity != null ? entity.toDomain() : null;
+        return entity != null ? toDomain(entity) : null;
     }
 
     @Override
     public CustomerAccounts findByCustomerId(UUID customerId, int offset, int limit) {
+        if (readRouter.useReplica()) {
+            return new CustomerAccounts(customerId, replicaAccountReader.countByCustomerId(customerId),
+                    replicaAccountReader.findByCustomerId(customerId, offset, limit));
+        }
         List<AccountEntity> entities =
                 accountRepository.findByCustomerId(customerId, offset, limit);
         long totalCount = accountRepository.countByCustomerId(customerId);
 
-        List<Account> accounts = entities.stream().map(AccountEntity::toDomain).toList();
+        List<Account> accounts = toDomain(entities);
 
         return new CustomerAccounts(customerId, totalCount, accounts);
     }
 
+    @Override
+    public CustomerAccounts findByCustomerIdAfter(UUID customerId, UUID afterId, int limit, boolean includeCount) {
+        if (readRouter.useReplica()) {
+            List<Account> page = replicaAccountReader.findByCustomerIdAfter(customerId, afterId, limit + 1);
+            boolean hasMore = page.size() > limit;
+            List<Account> accounts = hasMore ? page.subList(0, limit) : page;
+            Long totalCount = includeCount ? replicaAccountReader.countByCustomerId(customerId) : null;
+            return new CustomerAccounts(customerId, totalCount, accounts, hasMore ? accounts.getLast().getId() : null);
+        }
+        // One extra row tells whether there is a next page without counting
+        List<AccountEntity> entities = accountRepository.findByCustomerIdAfter(customerId, afterId, limit + 1);
+        boolean hasMore = entities.size() > limit;
+        List<Account> accounts = toDomain(hasMore ? entities.subList(0, limit) : entities);
+        Long totalCount = includeCount ? accountRepository.countByCustomerId(customerId) : null;
+        UUID nextAfter = hasMore ? accounts.getLast().getId() : null;
+        return new CustomerAccounts(customerId, totalCount, accounts, nextAfter);
+    }
+
     @Override
     public List<Account> findByStatus(Account.AccountStatus status) {
-        List<AccountEntity> entities = accountRepository.findByStatus(status);
-        return entities.stream().map(AccountEntity::toDomain).toList();
+        if (readRouter.useReplica()) {
+            return replicaAccountReader.findByStatus(status);
+        }
+        return toDomain(accountRepository.findByStatus(status));
+    }
+
+    @Override
+    public void streamByStatus(Account.AccountStatus status, Consumer<Account> consumer) {
+        if (readRouter.useReplica()) {
+            replicaAccountReader.forEachByStatus(status, exportFetchSize, exportTransactionTimeout, consumer);
+            return;
+        }
+        // The driver only uses a server-side cursor inside a transaction
+        QuarkusTransaction.joiningExisting()
+                .timeout((int) exportTransactionTimeout.toSeconds())
+                .run(() -> accountRepository.forEachByStatus(status, exportFetchSize,
+                        entity -> consumer.accept(toDomain(entity))));
     }
 
     @Override
     public void deleteAccount(UUID id) {
+        readRouter.recordWrite();
         accountRepository.deleteById(id);
     }
+
+    private Account toDomain(AccountEntity entity) {
+        if (!entity.isSharded()) {
+            return entity.toDomain();
+        }
+        return entity.toDomain(accountRepository.sumShards(List.of(entity.getId()))
+                .getOrDefault(entity.getId(), BigDecimal.ZERO));
+    }
+
+    /**
+     * Converts entities, adding the shard balances of sharded accounts with one query
+     */
+    private List<Account> toDomain(List<AccountEntity> entities) {
+        List<UUID> sharded = entities.stream().filter(AccountEntity::isSharded).map(AccountEntity::getId).toList();
+        if (sharded.isEmpty()) {
+            return entities.stream().map(AccountEntity::toDomain).toList();
+        }
+        Map<UUID, BigDecimal> shardBalances = accountRepository.sumShards(sharded);
+        return entities.stream()
+                .map(entity -> entity.toDomain(shardBalances.getOrDefault(entity.getId(), BigDecimal.ZERO)))
+                .toList();
+    }
 }
@@ -1,18 +1,546 @@
 package org.nguyennn.account_svc.adapter.out.persistence;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import org.hibernate.query.NativeQuery;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.Cache;
+import jakarta.persistence.Query;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
 import org.nguyennn.account_svc.domain.Account;
 
 @ApplicationScoped
 public class AccountRepository implements PanacheRepositoryBase<AccountEntity, UUID> {
 
+    /**
+     * Applies a signed balance delta and appends the matching ledger entry in one statement. The
+     * row is only updated when the account is active, the resulting balance stays non-negative
+     * and the transaction has not been applied to this account yet. Credits to accounts with
+     * balance shards are left to {@link #CREDIT_SHARD_SQL}. For sharded accounts the returned
+     * balances include the shards as of the statement snapshot, so they are not exact.
+     */
+    private static final String UPDATE_BALANCE_SQL = """
+            WITH updated AS (
+                UPDATE accounts a
+                SET balance = balance + :delta
+                WHERE account_id = :accountId
+                  AND status = 'ACTIVE'
+                  AND balance + :delta >= 0
+                  AND (balance_shards = 0 OR :delta < 0)
+                  AND NOT EXISTS (SELECT 1 FROM ledger_entries
+                                  WHERE transaction_id = :transactionId AND account_id = :accountId)
+                RETURNING account_id, customer_id, currency, CAST(status AS text) AS status,
+                          balance_shards = 0 AS exact,
+                          balance + CASE WHEN balance_shards > 0
+                                         THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                               WHERE s.account_id = a.account_id)
+                                         ELSE 0 END AS balance
+            ), ledger AS (
+                INSERT INTO ledger_entries (transaction_id, account_id, entry_type, amount, currency)
+                SELECT :transactionId, account_id, CAST(:entryType AS ledger_entry_type_enum), :amount, currency
+                FROM updated
+            )
+            SELECT account_id, customer_id, currency, balance - :delta, balance, status, exact FROM updated
+            """;
+
+    /**
+     * Applies a group of balance updates for distinct accounts in one statement, appending all
+     * their ledger entries with one multi-row insert. Each update keeps the conditions of
+     * {@link #UPDATE_BALANCE_SQL}, so balance and ledger stay atomic and a replayed transaction is
+     * skipped. The account rows are locked in account ID order before any is updated. Sharded
+     * accounts are left alone, because their shards have to be locked before the account row;
+     * every update comes back with the outcome or with whether its account is sharded.
+     */
+    private static final String APPLY_BALANCE_UPDATES_SQL = """
+            WITH input AS (
+                SELECT * FROM unnest(CAST(:transactionIds AS uuid[]), CAST(:accountIds AS uuid[]),
+                                     CAST(:deltas AS numeric[]))
+                    WITH ORDINALITY AS i (transaction_id, account_id, delta, ord)
+            ), locked AS MATERIALIZED (
+                SELECT account_id FROM accounts
+                WHERE account_id = ANY(CAST(:accountIds AS uuid[])) AND balance_shards = 0
+                ORDER BY account_id
+                FOR UPDATE
+            ), updated AS (
+                UPDATE accounts a
+                SET balance = a.balance + i.delta
+                FROM input i JOIN locked l ON l.account_id = i.account_id
+                WHERE a.account_id = i.account_id
+                  AND a.status = 'ACTIVE'
+                  AND a.balance + i.delta >= 0
+                  AND a.balance_shards = 0
+                  AND NOT EXISTS (SELECT 1 FROM ledger_entries e
+                                  WHERE e.transaction_id = i.transaction_id AND e.account_id = i.account_id)
+                RETURNING i.ord, i.transaction_id, i.delta, a.account_id, a.customer_id, a.currency,
+                          CAST(a.status AS text) AS status, a.balance
+            ), ledger AS (
+                INSERT INTO ledger_entries (transaction_id, account_id, entry_type, amount, currency)
+                SELECT transaction_id, account_id,
+                       CAST(CASE WHEN delta < 0 THEN 'DEBIT' ELSE 'CREDIT' END AS ledger_entry_type_enum),
+                       abs(delta), currency
+                FROM updated
+            )
+            SELECT i.ord, u.account_id, u.customer_id, u.currency, u.balance - u.delta, u.balance, u.status,
+                   COALESCE(a.balance_shards > 0, false)
+            FROM input i
+            LEFT JOIN updated u ON u.ord = i.ord
+            LEFT JOIN accounts a ON a.account_id = i.account_id
+            ORDER BY i.ord
+            """;
+
+    /**
+     * Credits one balance shard of a sharded account, picked by hashing the transaction ID, so
+     * concurrent credits lock different rows instead of queueing on the account row. The
+     * returned balances are computed from the statement snapshot, so they do not include credits
+     * to other shards that commit concurrently.
+     */
+    private static final String CREDIT_SHARD_SQL = """
+            WITH account AS (
+                SELECT a.account_id, a.customer_id, a.currency, CAST(a.status AS text) AS status, a.balance_shards,
+                       a.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                    WHERE s.account_id = a.account_id) AS balance
+                FROM accounts a
+                WHERE a.account_id = :accountId
+                  AND a.status = 'ACTIVE'
+                  AND a.balance_shards > 0
+                  AND NOT EXISTS (SELECT 1 FROM ledger_entries
+                                  WHERE transaction_id = :transactionId AND account_id = :accountId)
+            ), credited AS (
+                UPDATE account_balance_shards s
+                SET balance = s.balance + :delta
+                FROM account
+                WHERE s.account_id = account.account_id
+                  AND s.shard = (hashtext(CAST(:transactionId AS text)) & 2147483647) % account.balance_shards
+                RETURNING s.account_id
+            ), ledger AS (
+                INSERT INTO ledger_entries (transaction_id, account_id, entry_type, amount, currency)
+                SELECT :transactionId, account_id, 'CREDIT', :delta, currency
+                FROM account WHERE EXISTS (SELECT 1 FROM credited)
+            )
+            SELECT account_id, customer_id, currency, balance, balance + :delta, status, false
+            FROM account WHERE EXISTS (SELECT 1 FROM credited)
+            """;
+
+    /**
+     * Moves everything held in the shards of an account back into the account row. Shards are
+     * locked before the account row, in the same order as credits and debits take them.
+     */
+    private static final String CONSOLIDATE_SHARDS_SQL = """
+            WITH drained AS (
+                UPDATE account_balance_shards s
+                SET balance = 0
+                FROM (SELECT account_id, shard, balance FROM account_balance_shards
+                      WHERE account_id = :accountId AND balance > 0
+                      FOR UPDATE) held
+                WHERE s.account_id = held.account_id AND s.shard = held.shard
+                RETURNING held.balance
+            )
+            UPDATE accounts
+            SET balance = balance + (SELECT SUM(balance) FROM drained)
+            WHERE account_id = :accountId AND EXISTS (SELECT 1 FROM drained)
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO accounts (account_id, customer_id, account_number, account_type, currency, balance, status,
+                                  created_at, updated_at)
+            VALUES (?, ?, ?, CAST(? AS account_type_enum), ?, ?, CAST(? AS account_status_enum), ?, ?)
+            """;
+
+    private static final String COPY_SQL = """
+            COPY accounts (account_id, customer_id, account_number, account_type, currency, balance, status,
+                           created_at, updated_at)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+
+    /** Rows per JDBC batch, and per chunk written to COPY */
+    private static final int JDBC_BATCH_SIZE = 1000;
+
+    private static final String FIND_BALANCE_SQL = """
+            SELECT a.account_id, a.customer_id,
+                   a.balance + CASE WHEN a.balance_shards > 0
+                                    THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                          WHERE s.account_id = a.account_id)
+                                    ELSE 0 END,
+                   a.currency, CAST(a.status AS text)
+            FROM accounts a WHERE a.account_id = :accountId
+            """;
+
+    /**
+     * Balances of several accounts. {@code %s} stands for the array of account IDs, so the
+     * replica reader can bind it as a JDBC parameter where Hibernate binds {@code :ids}.
+     */
+    static final String BALANCES_SQL = """
+            SELECT a.account_id, a.customer_id,
+                   a.balance + CASE WHEN a.balance_shards > 0
+                                    THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                          WHERE s.account_id = a.account_id)
+                                    ELSE 0 END,
+                   a.currency, CAST(a.status AS text)
+            FROM accounts a WHERE a.account_id = ANY(%s)
+            """;
+
+    private static final String FIND_BALANCES_SQL = BALANCES_SQL.formatted(":ids");
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    /**
+     * Resolves the account number through the natural-id cache and the entity through the
+     * second-level cache, so hot accounts are served without a query.
+     */
     public AccountEntity findByAccountNumber(String accountNumber) {
-        return find("accountNumber", accountNumber)
-                .firstResult();
+        return getEntityManager().unwrap(Session.class)
+                .bySimpleNaturalId(AccountEntity.class)
+                .load(accountNumber);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<AccountEntity> findAllByIds(Collection<UUID> ids) {
+        // A single array parameter keeps one prepared statement regardless of the batch size
+        return getEntityManager()
+                .createNativeQuery("SELECT * FROM accounts WHERE account_id = ANY(:ids)", AccountEntity.class)
+                .setParameter("ids", ids.toArray(UUID[]::new))
+                .getResultList();
+    }
+
+    /**
+     * Apply a balance update and its ledger entry, spilling credits to a sharded account over to
+     * its shards and consolidating the shards when a debit needs their balance.
+     */
+    public Optional<AccountBalanceUpdateResult> applyBalanceUpdate(UUID transactionId, UUID accountId,
+            BigDecimal delta) {
+        Optional<AccountBalanceUpdateResult> updated = updateBalance(transactionId, accountId, delta);
+        if (updated.isPresent()) {
+            return updated;
+        }
+        // Nothing matched: either a credit to a sharded account, or a debit that needs the
+        // balance held in the shards
+        if (delta.signum() > 0) {
+            return creditShard(transactionId, accountId, delta);
+        }
+        if (consolidateShards(accountId)) {
+            return updateBalance(transactionId, accountId, delta);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Apply balance updates to distinct accounts with {@link #APPLY_BALANCE_UPDATES_SQL}
+     *
+     * @return one outcome per update, in the order given
+     */
+    public List<GroupedUpdate> applyBalanceUpdates(List<UUID> transactionIds, List<UUID> accountIds,
+            List<BigDecimal> deltas) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery(APPLY_BALANCE_UPDATES_SQL)
+                .setParameter("transactionIds", transactionIds.toArray(UUID[]::new))
+                .setParameter("accountIds", accountIds.toArray(UUID[]::new))
+                .setParameter("deltas", deltas.toArray(BigDecimal[]::new))
+                .getResultList();
+        List<GroupedUpdate> updates = new ArrayList<>(rows.size());
+        for (Object result : rows) {
+            Object[] row = (Object[]) result;
+            int index = ((Number) row[0]).intValue() - 1;
+            if (row[1] == null) {
+                updates.add(new GroupedUpdate(Optional.empty(), (Boolean) row[7]));
+                continue;
+            }
+            evictCached(accountIds.get(index));
+            updates.add(new GroupedUpdate(Optional.of(new AccountBalanceUpdateResult((BigDecimal) row[4],
+                    (BigDecimal) row[5], transactionIds.get(index).toString(), row[1].toString(), row[2].toString(),
+                    (String) row[3], (String) row[6], true)), false));
+        }
+        return updates;
+    }
+
+    /**
+     * Outcome of one update of a group: the result if it was applied, otherwise whether it was
+     * skipped because the account is sharded rather than rejected
+     */
+    public record GroupedUpdate(Optional<AccountBalanceUpdateResult> result, boolean sharded) {
+    }
+
+    public Optional<AccountBalanceUpdateResult> updateBalance(UUID transactionId, UUID accountId, BigDecimal delta) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery(UPDATE_BALANCE_SQL)
+                .setParameter("transactionId", transactionId)
+                .setParameter("accountId", accountId)
+                .setParameter("delta", delta)
+                .setParameter("amount", delta.abs())
+                .setParameter("entryType", delta.signum() < 0 ? "DEBIT" : "CREDIT")
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evictCached(accountId);
+        return Optional.of(toUpdateResult(transactionId, (Object[]) rows.getFirst()));
+    }
+
+    public Optional<AccountBalanceUpdateResult> creditShard(UUID transactionId, UUID accountId, BigDecimal delta) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery(CREDIT_SHARD_SQL)
+                .setParameter("transactionId", transactionId)
+                .setParameter("accountId", accountId)
+                .setParameter("delta", delta)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(toUpdateResult(transactionId, (Object[]) rows.getFirst()));
+    }
+
+    private static AccountBalanceUpdateResult toUpdateResult(UUID transactionId, Object[] row) {
+        return new AccountBalanceUpdateResult((BigDecimal) row[3], (BigDecimal) row[4], transactionId.toString(),
+                row[0].toString(), row[1].toString(), (String) row[2], (String) row[5], (Boolean) row[6]);
+    }
+
+    /**
+     * @return whether any shard balance was moved into the account row
+     */
+    public boolean consolidateShards(UUID accountId) {
+        boolean moved = nativeUpdate(CONSOLIDATE_SHARDS_SQL)
+                .setParameter("accountId", accountId)
+                .executeUpdate() > 0;
+        if (moved) {
+            evictCached(accountId);
+        }
+        return moved;
+    }
+
+    /**
+     * Set the number of balance shards of an account, 0 to turn sharding off. Shard balances are
+     * consolidated first, so the total balance never changes.
+     *
+     * @return whether the account exists
+     */
+    public boolean configureShards(UUID accountId, int shards) {
+        consolidateShards(accountId);
+        nativeUpdate("DELETE FROM account_balance_shards WHERE account_id = :accountId AND shard >= :shards")
+                .setParameter("accountId", accountId)
+                .setParameter("shards", shards)
+                .executeUpdate();
+        int updated = nativeUpdate("UPDATE accounts SET balance_shards = :shards WHERE account_id = :accountId")
+                .setParameter("accountId", accountId)
+                .setParameter("shards", shards)
+                .executeUpdate();
+        if (updated > 0 && shards > 0) {
+            nativeUpdate("""
+                    INSERT INTO account_balance_shards (account_id, shard)
+                    SELECT :accountId, shard FROM generate_series(0, :shards - 1) AS shard
+                    ON CONFLICT DO NOTHING
+                    """)
+                    .setParameter("accountId", accountId)
+                    .setParameter("shards", shards)
+                    .executeUpdate();
+        }
+        evictCached(accountId);
+        return updated > 0;
+    }
+
+    /**
+     * Sum the shard balances of the given accounts; accounts without shards are absent
+     */
+    public Map<UUID, BigDecimal> sumShards(Collection<UUID> accountIds) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery("""
+                        SELECT account_id, SUM(balance) FROM account_balance_shards
+                        WHERE account_id = ANY(:ids) GROUP BY account_id
+                        """)
+                .setParameter("ids", accountIds.toArray(UUID[]::new))
+                .getResultList();
+        Map<UUID, BigDecimal> sums = new HashMap<>();
+        for (Object result : rows) {
+            Object[] row = (Object[]) result;
+            sums.put((UUID) row[0], (BigDecimal) row[1]);
+        }
+        return sums;
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<UUID> findShardedAccountIds() {
+        return getEntityManager()
+                .createNativeQuery("SELECT account_id FROM accounts WHERE balance_shards > 0", UUID.class)
+                .getResultList();
+    }
+
+    /**
+     * Changes only the status, in one round trip, and returns the updated row. Other columns are
+     * left untouched; updated_at is maintained by the table trigger.
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<AccountEntity> updateStatus(UUID accountId, Account.AccountStatus status) {
+        List<AccountEntity> rows = getEntityManager()
+                .createNativeQuery("""
+                        UPDATE accounts SET status = CAST(:status AS account_status_enum)
+                        WHERE account_id = :accountId
+                        RETURNING *
+                        """, AccountEntity.class)
+                .setParameter("status", status.name())
+                .setParameter("accountId", accountId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        evictCached(accountId);
+        return Optional.of(rows.getFirst());
+    }
+
+    /**
+     * Inserts new accounts without going through the session. Large batches are streamed with
+     * COPY, smaller ones sent as JDBC batches.
+     */
+    public void insertAll(List<Account> accounts, OffsetDateTime now, int copyThreshold) {
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            if (accounts.size() >= copyThreshold) {
+                copyIn(connection, accounts, now);
+            } else {
+                batchInsert(connection, accounts, now);
+            }
+        });
+    }
+
+    private static void batchInsert(Connection connection, List<Account> accounts, OffsetDateTime now)
+            throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+            int pending = 0;
+            for (Account account : accounts) {
+                statement.setObject(1, account.getId());
+                statement.setObject(2, account.getCustomerId());
+                statement.setString(3, account.getAccountNumber());
+                statement.setString(4, account.getType().name());
+                statement.setString(5, account.getCurrency());
+                statement.setBigDecimal(6, account.getBalance());
+                statement.setString(7, account.getStatus().name());
+                statement.setObject(8, now);
+                statement.setObject(9, now);
+                statement.addBatch();
+                if (++pending == JDBC_BATCH_SIZE) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    private static void copyIn(Connection connection, List<Account> accounts, OffsetDateTime now)
+            throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            String timestamp = now.toString();
+            StringBuilder rows = new StringBuilder(JDBC_BATCH_SIZE * 160);
+            for (int i = 0; i < accounts.size(); i++) {
+                Account account = accounts.get(i);
+                rows.append(account.getId()).append(',')
+                        .append(account.getCustomerId()).append(',');
+                appendQuoted(rows, account.getAccountNumber()).append(',')
+                        .append(account.getType().name()).append(',');
+                appendQuoted(rows, account.getCurrency()).append(',')
+                        .append(account.getBalance().toPlainString()).append(',')
+                        .append(account.getStatus().name()).append(',')
+                        .append(timestamp).append(',')
+                        .append(timestamp).append('\n');
+                if ((i + 1) % JDBC_BATCH_SIZE == 0 || i == accounts.size() - 1) {
+                    byte[] chunk = rows.toString().getBytes(StandardCharsets.UTF_8);
+                    copy.writeToCopy(chunk, 0, chunk.length);
+                    rows.setLength(0);
+                }
+            }
+            copy.endCopy();
+        } finally {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder csv, String value) {
+        return csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<String> findExistingAccountNumbers(Collection<String> accountNumbers) {
+        return new HashSet<>(getEntityManager()
+                .createNativeQuery("SELECT account_number FROM accounts WHERE account_number = ANY(:numbers)",
+                        String.class)
+                .setParameter("numbers", accountNumbers.toArray(String[]::new))
+                .getResultList());
+    }
+
+    @SuppressWarnings("unchecked")
+    public Set<UUID> findExistingCustomerIds(Collection<UUID> customerIds) {
+        return new HashSet<>(getEntityManager()
+                .createNativeQuery("SELECT customer_id FROM customers WHERE customer_id = ANY(:ids)", UUID.class)
+                .setParameter("ids", customerIds.toArray(UUID[]::new))
+                .getResultList());
+    }
+
+    public Optional<AccountBalance> findBalance(UUID accountId) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery(FIND_BALANCE_SQL)
+                .setParameter("accountId", accountId)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return Optional.of(new AccountBalance((UUID) row[0], (UUID) row[1], (BigDecimal) row[2], (String) row[3],
+                Account.AccountStatus.valueOf((String) row[4])));
+    }
+
+    public List<AccountBalance> findBalances(Collection<UUID> accountIds) {
+        List<?> rows = getEntityManager()
+                .createNativeQuery(FIND_BALANCES_SQL)
+                .setParameter("ids", accountIds.toArray(UUID[]::new))
+                .getResultList();
+        List<AccountBalance> balances = new ArrayList<>(rows.size());
+        for (Object result : rows) {
+            Object[] row = (Object[]) result;
+            balances.add(new AccountBalance((UUID) row[0], (UUID) row[1], (BigDecimal) row[2], (String) row[3],
+                    Account.AccountStatus.valueOf((String) row[4])));
+        }
+        return balances;
+    }
+
+    public boolean hasLedgerEntry(UUID transactionId, UUID accountId) {
+        return !getEntityManager()
+                .createNativeQuery("SELECT 1 FROM ledger_entries WHERE transaction_id = :transactionId AND account_id = :accountId")
+                .setParameter("transactionId", transactionId)
+                .setParameter("accountId", accountId)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
     }
 
     public AccountEntity save(AccountEntity entity) {
@@ -30,12 +558,89 @@ public class AccountRepository implements PanacheRepositoryBase<AccountEntity, U
                 .list();
     }
 
+    /**
+     * Keyset page over (customer_id, account_id): seeks straight to the first account after
+     * {@code afterId} instead of scanning and discarding an offset.
+     */
+    public List<AccountEntity> findByCustomerIdAfter(UUID customerId, UUID afterId, int limit) {
+        if (afterId == null) {
+            return find("customerId", Sort.by("id"), customerId)
+                    .range(0, limit - 1)
+                    .list();
+        }
+        return find("customerId = ?1 and id > ?2", Sort.by("id"), customerId, afterId)
+                .range(0, limit - 1)
+                .list();
+    }
+
     public long countByCustomerId(UUID customerId) {
         return count("customerId", customerId);
     }
 
+    /**
+     * Streams accounts with a status through a forward-only cursor. Inside a transaction the
+     * PostgreSQL driver then fetches {@code fetchSize} rows per round trip instead of the whole
+     * result, and the session is cleared after every fetch so entities do not pile up. Rows come
+     * in no particular order: no index serves {@code status} ordered by ID, so sorting would
+     * read the whole status segment before the first row.
+     */
+    public void forEachByStatus(Account.AccountStatus status, int fetchSize, Consumer<AccountEntity> consumer) {
+        Session session = getEntityManager().unwrap(Session.class);
+        try (ScrollableResults<AccountEntity> results = session
+                .createSelectionQuery("from AccountEntity where status = :status", AccountEntity.class)
+                .setParameter("status", AccountEntity.AccountStatus.valueOf(status.name()))
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            int rows = 0;
+            while (results.next()) {
+                consumer.accept(results.get());
+                if (++rows % fetchSize == 0) {
+                    session.clear();
+                }
+            }
+        }
+    }
+
     public List<AccountEntity> findByStatus(Account.AccountStatus status) {
         return find("status", status)
                 .list();
     }
-}
\ No newline at end of file
+
+    /**
+     * A native update on the shard table. Declaring the query space stops Hibernate from clearing
+     * every second-level cache region after it; accounts changed by the update must be evicted
+     * with {@link #evictCached(UUID)}.
+     */
+    private Query nativeUpdate(String sql) {
+        return getEntityManager().createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("account_balance_shards");
+    }
+
+    /**
+     * Native statements bypass the second-level cache, so the cached account is evicted now and
+     * again once the transaction completes, in case a concurrent load cached the old row.
+     */
+    private void evictCached(UUID accountId) {
+        Cache cache = getEntityManager().getEntityManagerFactory().getCache();
+        cache.evict(AccountEntity.class, accountId);
+        if (transactionRegistry.getTransactionKey() != null) {
+            transactionRegistry.registerInterposedSynchronization(
+                    new AfterCompletion(() -> cache.evict(AccountEntity.class, accountId)));
+        }
+    }
+
+    private record AfterCompletion(Runnable action) implements Synchronization {
+
+        @Override
+        public void beforeCompletion() {
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            action.run();
+        }
+    }
+}
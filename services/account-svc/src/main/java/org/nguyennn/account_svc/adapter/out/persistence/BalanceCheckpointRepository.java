@@ -0,0 +1,140 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.hibernate.query.NativeQuery;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@ApplicationScoped
+public class BalanceCheckpointRepository {
+
+    /**
+     * Checkpoints the given accounts if they have none yet or have ledger entries since their
+     * last one. The balance at the checkpoint is the current total balance minus the entries
+     * posted after it, all read from one statement snapshot.
+     */
+    private static final String CHECKPOINT_SQL = """
+            INSERT INTO account_balance_checkpoints (account_id, checkpoint_at, balance)
+            SELECT a.account_id, :checkpointAt,
+                   a.balance
+                   + (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                      WHERE s.account_id = a.account_id)
+                   - (SELECT COALESCE(SUM(CASE WHEN l.entry_type = 'DEBIT' THEN -l.amount ELSE l.amount END), 0)
+                      FROM ledger_entries l
+                      WHERE l.account_id = a.account_id AND l.entry_timestamp > :checkpointAt)
+            FROM accounts a
+            WHERE a.account_id = ANY(:ids)
+              AND a.created_at <= :checkpointAt
+              AND (NOT EXISTS (SELECT 1 FROM account_balance_checkpoints c WHERE c.account_id = a.account_id)
+                   OR EXISTS (SELECT 1 FROM ledger_entries l
+                              WHERE l.account_id = a.account_id
+                                AND l.entry_timestamp > (SELECT MAX(c.checkpoint_at)
+                                                         FROM account_balance_checkpoints c
+                                                         WHERE c.account_id = a.account_id)
+                                AND l.entry_timestamp <= :checkpointAt))
+            ON CONFLICT DO NOTHING
+            """;
+
+    /**
+     * Starts from the checkpoint closest to the requested time on either side, or from the
+     * current balance if that is closer, and replays only the ledger entries in between: forward
+     * from an earlier anchor, backward from a later one. The entries are read through the
+     * (account_id, entry_timestamp) index, so the work is bounded by the checkpoint interval.
+     * {@code %1$s} and {@code %2$s} stand for the account ID and the time; each is bound once,
+     * by Hibernate here and as a JDBC parameter by the replica reader.
+     */
+    static final String BALANCE_AT_SQL = """
+            WITH params AS NOT MATERIALIZED (
+                SELECT CAST(%1$s AS uuid) AS account_id, CAST(%2$s AS timestamptz) AS as_of
+            ), anchors AS (
+                (SELECT c.checkpoint_at AS anchor_at, c.balance FROM account_balance_checkpoints c, params p
+                 WHERE c.account_id = p.account_id AND c.checkpoint_at <= p.as_of
+                 ORDER BY c.checkpoint_at DESC LIMIT 1)
+                UNION ALL
+                (SELECT c.checkpoint_at, c.balance FROM account_balance_checkpoints c, params p
+                 WHERE c.account_id = p.account_id AND c.checkpoint_at > p.as_of
+                 ORDER BY c.checkpoint_at LIMIT 1)
+                UNION ALL
+                SELECT now(), a.balance + (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                           WHERE s.account_id = a.account_id)
+                FROM accounts a, params p WHERE a.account_id = p.account_id
+            ), anchor AS (
+                SELECT anchor_at, balance FROM anchors, params p
+                ORDER BY abs(EXTRACT(EPOCH FROM anchor_at - p.as_of)) LIMIT 1
+            )
+            SELECT a.account_id, a.currency,
+                   anchor.balance + CASE WHEN anchor.anchor_at <= p.as_of
+                       THEN (SELECT COALESCE(SUM(CASE WHEN l.entry_type = 'DEBIT' THEN -l.amount ELSE l.amount END), 0)
+                             FROM ledger_entries l
+                             WHERE l.account_id = a.account_id
+                               AND l.entry_timestamp > anchor.anchor_at AND l.entry_timestamp <= p.as_of)
+                       ELSE -(SELECT COALESCE(SUM(CASE WHEN l.entry_type = 'DEBIT' THEN -l.amount ELSE l.amount END), 0)
+                              FROM ledger_entries l
+                              WHERE l.account_id = a.account_id
+                                AND l.entry_timestamp > p.as_of AND l.entry_timestamp <= anchor.anchor_at)
+                   END
+            FROM accounts a, anchor, params p
+            WHERE a.account_id = p.account_id
+            """;
+
+    private static final String FIND_BALANCE_AT_SQL = BALANCE_AT_SQL.formatted(":accountId", ":asOf");
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public BalanceCheckpointRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * @return up to {@code limit} account IDs after {@code afterId} in ID order, all of them when
+     *         {@code afterId} is null
+     */
+    public List<UUID> findAccountIdsAfter(UUID afterId, int limit) {
+        String sql = afterId == null
+                ? "SELECT account_id FROM accounts ORDER BY account_id LIMIT :limit"
+                : "SELECT account_id FROM accounts WHERE account_id > :afterId ORDER BY account_id LIMIT :limit";
+        var query = entityManager.createNativeQuery(sql, UUID.class).setParameter("limit", limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        @SuppressWarnings("unchecked")
+        List<UUID> ids = query.getResultList();
+        return ids;
+    }
+
+    /**
+     * Write a checkpoint at {@code checkpointAt} for those of the accounts that need one
+     *
+     * @return the number of checkpoints written
+     */
+    public int checkpoint(List<UUID> accountIds, OffsetDateTime checkpointAt) {
+        return entityManager.createNativeQuery(CHECKPOINT_SQL)
+                .unwrap(NativeQuery.class)
+                // Otherwise Hibernate clears the whole second-level cache after every batch
+                .addSynchronizedQuerySpace("account_balance_checkpoints")
+                .setParameter("ids", accountIds.toArray(UUID[]::new))
+                .setParameter("checkpointAt", checkpointAt)
+                .executeUpdate();
+    }
+
+    public Optional<HistoricalBalance> findBalanceAt(UUID accountId, OffsetDateTime asOf) {
+        List<?> rows = entityManager.createNativeQuery(FIND_BALANCE_AT_SQL)
+                .setParameter("accountId", accountId)
+                .setParameter("asOf", asOf)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = (Object[]) rows.getFirst();
+        return Optional.of(new HistoricalBalance((UUID) row[0], (BigDecimal) row[2], (String) row[1], asOf));
+    }
+}
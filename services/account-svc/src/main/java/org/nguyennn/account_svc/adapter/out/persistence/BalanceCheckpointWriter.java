@@ -0,0 +1,73 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Periodically checkpoints the balance of every account that had ledger activity since its last
+ * checkpoint, so balance-at-time queries only replay the entries of one checkpoint interval.
+ * Accounts are walked in ID order, one short transaction per batch.
+ */
+@ApplicationScoped
+public class BalanceCheckpointWriter {
+
+    private final BalanceCheckpointRepository checkpointRepository;
+    private final Duration settleTime;
+    private final int batchSize;
+    private final Counter written;
+
+    @Inject
+    public BalanceCheckpointWriter(BalanceCheckpointRepository checkpointRepository, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.balance-checkpoints.settle-time") Duration settleTime,
+            @ConfigProperty(name = "account-svc.balance-checkpoints.batch-size") int batchSize) {
+        this.checkpointRepository = checkpointRepository;
+        this.settleTime = settleTime;
+        this.batchSize = batchSize;
+        this.written = Counter.builder("account.balance.checkpoints.written")
+                .description("Balance checkpoints written")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(every = "{account-svc.balance-checkpoints.every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void checkpoint() {
+        // Ledger entries are stamped with their transaction's start time, so stay behind any
+        // transaction that may still be running
+        OffsetDateTime checkpointAt = OffsetDateTime.now().minus(settleTime);
+        UUID afterId = null;
+        int total = 0;
+        try {
+            List<UUID> accountIds;
+            do {
+                UUID after = afterId;
+                accountIds = QuarkusTransaction.requiringNew()
+                        .call(() -> checkpointRepository.findAccountIdsAfter(after, batchSize));
+                if (accountIds.isEmpty()) {
+                    break;
+                }
+                List<UUID> batch = accountIds;
+                int count = QuarkusTransaction.requiringNew()
+                        .call(() -> checkpointRepository.checkpoint(batch, checkpointAt));
+                written.increment(count);
+                total += count;
+                afterId = accountIds.getLast();
+            } while (accountIds.size() == batchSize);
+        } catch (RuntimeException e) {
+            // Accounts not reached yet are picked up by the next run
+            Log.warn("Balance checkpoint run stopped after account " + afterId, e);
+        }
+        Log.debug("Wrote " + total + " balance checkpoints at " + checkpointAt);
+    }
+}
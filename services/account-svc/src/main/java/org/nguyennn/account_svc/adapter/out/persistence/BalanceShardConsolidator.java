@@ -0,0 +1,39 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.util.List;
+import java.util.UUID;
+
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Periodically folds the shard balances of sharded accounts back into the account rows, so
+ * that debits rarely have to borrow from the shards themselves. Each account is consolidated in
+ * its own short transaction to keep the shard rows locked as briefly as possible.
+ */
+@ApplicationScoped
+public class BalanceShardConsolidator {
+
+    private final AccountRepository accountRepository;
+
+    @Inject
+    public BalanceShardConsolidator(AccountRepository accountRepository) {
+        this.accountRepository = accountRepository;
+    }
+
+    @Scheduled(every = "{account-svc.balance-shards.consolidate-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void consolidate() {
+        List<UUID> accountIds = QuarkusTransaction.requiringNew().call(accountRepository::findShardedAccountIds);
+        for (UUID accountId : accountIds) {
+            try {
+                QuarkusTransaction.requiringNew().run(() -> accountRepository.consolidateShards(accountId));
+            } catch (RuntimeException e) {
+                Log.warn("Failed to consolidate balance shards of account " + accountId, e);
+            }
+        }
+    }
+}
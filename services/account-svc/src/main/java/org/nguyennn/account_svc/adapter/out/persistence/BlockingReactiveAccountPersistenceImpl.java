@@ -0,0 +1,64 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.eclipse.microprofile.context.ThreadContext;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.out.persistence.AccountPersistencePort;
+import org.nguyennn.account_svc.application.out.persistence.ReactiveAccountPersistencePort;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.quarkus.arc.lookup.LookupUnlessProperty;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.virtual.threads.VirtualThreads;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Serves the reactive port from the JDBC adapter, running each call on a virtual thread from the
+ * Quarkus-managed executor. The caller's request context is carried over, so request-scoped state
+ * such as read consistency still applies, and each call runs in a transaction so the ORM session
+ * stays open while it loads. This is the default and the baseline to compare the non-blocking
+ * client against.
+ */
+@ApplicationScoped
+@LookupUnlessProperty(name = "account-svc.persistence.mode", stringValue = "reactive")
+public class BlockingReactiveAccountPersistenceImpl implements ReactiveAccountPersistencePort {
+
+    private final AccountPersistencePort accountPersistencePort;
+    private final ExecutorService executor;
+    private final ThreadContext threadContext;
+
+    @Inject
+    public BlockingReactiveAccountPersistenceImpl(AccountPersistencePort accountPersistencePort,
+            @VirtualThreads ExecutorService executor, ThreadContext threadContext) {
+        this.accountPersistencePort = accountPersistencePort;
+        this.executor = executor;
+        this.threadContext = threadContext;
+    }
+
+    @Override
+    public Uni<Optional<Account>> findById(UUID id) {
+        return offload(() -> accountPersistencePort.findById(id));
+    }
+
+    @Override
+    public Uni<Optional<Account>> findByAccountNumber(String accountNumber) {
+        return offload(() -> Optional.ofNullable(accountPersistencePort.findByAccountNumber(accountNumber)));
+    }
+
+    @Override
+    public Uni<Optional<AccountBalance>> findBalance(UUID id) {
+        return offload(() -> accountPersistencePort.findBalance(id));
+    }
+
+    private <T> Uni<T> offload(Callable<T> call) {
+        return Uni.createFrom()
+                .item(threadContext.contextualSupplier(() -> QuarkusTransaction.joiningExisting().call(call)))
+                .runSubscriptionOn(executor);
+    }
+}
@@ -0,0 +1,282 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.logging.Log;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Group-commits balance updates and their ledger entries. Callers enqueue updates into a bounded
+ * queue and block until their update is durable; writer threads apply whatever has queued up in
+ * one transaction, with one multi-row statement per round of distinct accounts, so a few round
+ * trips and a single commit cover many ledger entries. If a group fails, its updates are applied
+ * one transaction each so one bad update cannot fail the others. Updates to sharded accounts
+ * skip the group and get a transaction each, see {@link #flush}.
+ * <p>
+ * Every ledger entry references its row in {@code transactions}, which the transaction service
+ * writes before it asks for the balance update. An update for a transaction without that row
+ * fails the group with a foreign key violation; the replay then fails only that update, and
+ * leaves its balance unchanged.
+ */
+@ApplicationScoped
+public class LedgerWriter {
+
+    private final AccountRepository accountRepository;
+    private final BlockingQueue<PendingUpdate> queue;
+    private final int maxBatchSize;
+    private final Duration maxDelay;
+    private final int writerCount;
+    private final DistributionSummary batchSizes;
+    private final Timer commitLatency;
+    private final List<Thread> writers = new ArrayList<>();
+
+    private volatile boolean running = true;
+
+    @Inject
+    public LedgerWriter(AccountRepository accountRepository, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.ledger.queue-capacity") int queueCapacity,
+            @ConfigProperty(name = "account-svc.ledger.max-batch-size") int maxBatchSize,
+            @ConfigProperty(name = "account-svc.ledger.max-delay") Duration maxDelay,
+            @ConfigProperty(name = "account-svc.ledger.writers") int writerCount) {
+        this.accountRepository = accountRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.writerCount = writerCount;
+        this.batchSizes = DistributionSummary.builder("account.ledger.batch.size")
+                .description("Balance updates applied per group commit")
+                .register(meterRegistry);
+        this.commitLatency = Timer.builder("account.ledger.commit")
+                .description("Time to commit a group of ledger entries")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("account.ledger.queue.depth", queue, BlockingQueue::size)
+                .description("Balance updates waiting for a ledger writer")
+                .register(meterRegistry);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        for (int i = 0; i < writerCount; i++) {
+            writers.add(Thread.ofVirtual().name("account-ledger-writer-" + i).start(this::run));
+        }
+    }
+
+    /**
+     * Apply a balance update in the next group commit, waiting until it is committed. Blocks
+     * while the queue is full.
+     *
+     * @return the old and new balances, or empty if the update was rejected
+     */
+    public Optional<AccountBalanceUpdateResult> apply(UUID transactionId, UUID accountId, BigDecimal delta) {
+        PendingUpdate update = new PendingUpdate(transactionId, accountId, delta, new CompletableFuture<>());
+        try {
+            queue.put(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing a ledger entry", e);
+        }
+        if (!running) {
+            // Raced with shutdown, make sure the update does not wait forever
+            failPending();
+        }
+        try {
+            return update.result().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void run() {
+        List<PendingUpdate> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                collect(batch);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // The interrupt is cleared, so a writer that is still running takes the next
+                // update instead of failing every wait straight away
+                batch.forEach(update -> update.result().completeExceptionally(
+                        new IllegalStateException("Ledger writer interrupted")));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Add whatever else is queued, waiting up to the max delay for a fuller batch.
+     */
+    private void collect(List<PendingUpdate> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (batch.size() < maxBatchSize) {
+            queue.drainTo(batch, maxBatchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= maxBatchSize || remaining <= 0) {
+                return;
+            }
+            PendingUpdate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Apply a batch. Group transactions only lock account rows, in account ID order. Sharded
+     * accounts need their shards locked before the account row, which the group cannot order
+     * against its other rows, so their updates are applied after the group, one transaction each
+     * and in queue order per account.
+     */
+    private void flush(List<PendingUpdate> batch) {
+        batchSizes.record(batch.size());
+        // The sort is stable, so updates to one account keep their queue order
+        List<PendingUpdate> ordered = new ArrayList<>(batch);
+        ordered.sort(Comparator.comparing(PendingUpdate::accountId));
+        List<PendingUpdate> sharded = new ArrayList<>();
+        try {
+            sharded.addAll(applyGroup(ordered));
+        } catch (RuntimeException e) {
+            if (ordered.size() == 1) {
+                ordered.getFirst().result().completeExceptionally(e);
+                return;
+            }
+            Log.warn("Group commit of " + ordered.size() + " ledger entries failed, applying them one by one", e);
+            for (PendingUpdate update : ordered) {
+                try {
+                    sharded.addAll(applyGroup(List.of(update)));
+                } catch (RuntimeException single) {
+                    update.result().completeExceptionally(single);
+                }
+            }
+        }
+        for (PendingUpdate update : sharded) {
+            try {
+                update.result().complete(QuarkusTransaction.requiringNew().call(() -> accountRepository
+                        .applyBalanceUpdate(update.transactionId(), update.accountId(), update.delta())));
+            } catch (RuntimeException e) {
+                update.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Apply updates sorted by account in one transaction and complete them once committed
+     *
+     * @return the updates left out because their account is sharded, in queue order per account
+     */
+    private List<PendingUpdate> applyGroup(List<PendingUpdate> updates) {
+        List<Optional<AccountBalanceUpdateResult>> results =
+                new ArrayList<>(Collections.nCopies(updates.size(), Optional.empty()));
+        boolean[] skipped = new boolean[updates.size()];
+        List<PendingUpdate> sharded = new ArrayList<>();
+        QuarkusTransaction.begin();
+        try {
+            Set<UUID> shardedAccounts = new HashSet<>();
+            for (List<Integer> round : rounds(updates)) {
+                List<Integer> applied = new ArrayList<>(round.size());
+                for (int index : round) {
+                    if (shardedAccounts.contains(updates.get(index).accountId())) {
+                        skipped[index] = true;
+                        sharded.add(updates.get(index));
+                    } else {
+                        applied.add(index);
+                    }
+                }
+                if (applied.isEmpty()) {
+                    continue;
+                }
+                List<AccountRepository.GroupedUpdate> outcomes = accountRepository.applyBalanceUpdates(
+                        applied.stream().map(index -> updates.get(index).transactionId()).toList(),
+                        applied.stream().map(index -> updates.get(index).accountId()).toList(),
+                        applied.stream().map(index -> updates.get(index).delta()).toList());
+                for (int i = 0; i < applied.size(); i++) {
+                    int index = applied.get(i);
+                    AccountRepository.GroupedUpdate outcome = outcomes.get(i);
+                    if (outcome.sharded()) {
+                        shardedAccounts.add(updates.get(index).accountId());
+                        skipped[index] = true;
+                        sharded.add(updates.get(index));
+                    } else {
+                        results.set(index, outcome.result());
+                    }
+                }
+            }
+            commitLatency.record(QuarkusTransaction::commit);
+        } catch (RuntimeException e) {
+            if (QuarkusTransaction.isActive()) {
+                QuarkusTransaction.rollback();
+            }
+            throw e;
+        }
+        for (int i = 0; i < updates.size(); i++) {
+            if (!skipped[i]) {
+                updates.get(i).result().complete(results.get(i));
+            }
+        }
+        return sharded;
+    }
+
+    /**
+     * Split updates sorted by account into rounds that touch each account at most once. Round k
+     * holds the k-th update of every account, so updates to one account still apply in order, and
+     * each round's accounts are a subset of the first round's, which already holds their locks.
+     */
+    static List<List<Integer>> rounds(List<PendingUpdate> updates) {
+        List<List<Integer>> rounds = new ArrayList<>();
+        int round = 0;
+        for (int i = 0; i < updates.size(); i++) {
+            round = i > 0 && updates.get(i).accountId().equals(updates.get(i - 1).accountId()) ? round + 1 : 0;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(i);
+        }
+        return rounds;
+    }
+
+    private void failPending() {
+        PendingUpdate update;
+        while ((update = queue.poll()) != null) {
+            update.result().completeExceptionally(new IllegalStateException("Ledger writer stopped"));
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        writers.forEach(Thread::interrupt);
+        failPending();
+    }
+
+    record PendingUpdate(UUID transactionId, UUID accountId, BigDecimal delta,
+            CompletableFuture<Optional<AccountBalanceUpdateResult>> result) {
+    }
+}
@@ -0,0 +1,9 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.time.Instant;
+
+/**
+ * A message claimed from the outbox table
+ */
+public record OutboxMessage(long id, String topic, String key, String payload, Instant createdAt) {
+}
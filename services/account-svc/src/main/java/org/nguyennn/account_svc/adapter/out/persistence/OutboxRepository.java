@@ -0,0 +1,85 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.hibernate.query.NativeQuery;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+@ApplicationScoped
+public class OutboxRepository {
+
+    private static final String APPEND_SQL = "INSERT INTO account_outbox (topic, message_key, payload) "
+            + "SELECT :topic, t.message_key, t.payload "
+            + "FROM unnest(CAST(:keys AS text[]), CAST(:payloads AS text[])) AS t(message_key, payload)";
+
+    /**
+     * Deletes the oldest messages and returns them, keeping each key in order across relays. A
+     * relay first locks the oldest message of each key; keys whose oldest message another relay
+     * holds are skipped as a whole, so a later message of a key can never be published while an
+     * earlier one is still in flight. The delete is rolled back with the transaction if
+     * publishing fails.
+     */
+    private static final String CLAIM_SQL = """
+            WITH heads AS (
+                SELECT outbox_id, message_key FROM account_outbox
+                WHERE outbox_id IN (SELECT DISTINCT ON (message_key) outbox_id FROM account_outbox
+                                    ORDER BY message_key, outbox_id)
+                ORDER BY outbox_id
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED
+            )
+            DELETE FROM account_outbox
+            WHERE outbox_id IN (SELECT o.outbox_id FROM account_outbox o
+                                JOIN heads h ON o.message_key = h.message_key OR o.outbox_id = h.outbox_id
+                                ORDER BY o.outbox_id
+                                LIMIT :limit)
+            RETURNING outbox_id, topic, message_key, payload,
+                      CAST(EXTRACT(EPOCH FROM created_at) * 1000 AS bigint)
+            """;
+
+    private final EntityManager entityManager;
+
+    @Inject
+    public OutboxRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Append messages for one topic with a single statement
+     */
+    public void append(String topic, List<String> keys, List<String> payloads) {
+        entityManager.createNativeQuery(APPEND_SQL)
+                .unwrap(NativeQuery.class)
+                // Otherwise Hibernate clears the whole second-level cache after every append
+                .addSynchronizedQuerySpace("account_outbox")
+                .setParameter("topic", topic)
+                .setParameter("keys", keys.toArray(String[]::new))
+                .setParameter("payloads", payloads.toArray(String[]::new))
+                .executeUpdate();
+    }
+
+    /**
+     * Claim up to {@code limit} of the oldest messages, in insertion order. Only keys no other
+     * relay is publishing are claimed, and for each of them an unbroken run of its oldest messages.
+     */
+    public List<OutboxMessage> claim(int limit) {
+        List<?> rows = entityManager.createNativeQuery(CLAIM_SQL)
+                .setParameter("limit", limit)
+                .getResultList();
+        List<OutboxMessage> messages = new ArrayList<>(rows.size());
+        for (Object result : rows) {
+            Object[] row = (Object[]) result;
+            messages.add(new OutboxMessage(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                    (String) row[3], Instant.ofEpochMilli(((Number) row[4]).longValue())));
+        }
+        // RETURNING does not keep the subquery order
+        messages.sort(Comparator.comparingLong(OutboxMessage::id));
+        return messages;
+    }
+}
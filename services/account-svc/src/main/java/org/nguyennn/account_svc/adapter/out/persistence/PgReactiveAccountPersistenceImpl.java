@@ -0,0 +1,96 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.out.persistence.ReactiveAccountPersistencePort;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.quarkus.arc.lookup.LookupIfProperty;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Reads accounts through the non-blocking Postgres client, so requests never hold a JDBC
+ * connection or a carrier thread while waiting on the database.
+ */
+@ApplicationScoped
+@LookupIfProperty(name = "account-svc.persistence.mode", stringValue = "reactive")
+public class PgReactiveAccountPersistenceImpl implements ReactiveAccountPersistencePort {
+
+    /** The account row balance plus its balance shards, if any */
+    private static final String TOTAL_BALANCE = "a.balance + CASE WHEN a.balance_shards > 0 "
+            + "THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s "
+            + "WHERE s.account_id = a.account_id) ELSE 0 END AS balance";
+
+    private static final String ACCOUNT_COLUMNS = "a.account_id, a.customer_id, a.account_number, "
+            + "CAST(a.account_type AS text) AS account_type, a.currency, " + TOTAL_BALANCE + ", "
+            + "CAST(a.status AS text) AS status, a.created_at, a.updated_at";
+
+    private static final String FIND_BY_ID_SQL =
+            "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_id = $1";
+
+    private static final String FIND_BY_NUMBER_SQL =
+            "SELECT " + ACCOUNT_COLUMNS + " FROM accounts a WHERE a.account_number = $1";
+
+    private static final String FIND_BALANCE_SQL = "SELECT a.account_id, a.customer_id, " + TOTAL_BALANCE
+            + ", a.currency, CAST(a.status AS text) AS status FROM accounts a WHERE a.account_id = $1";
+
+    private final Pool pool;
+
+    @Inject
+    public PgReactiveAccountPersistenceImpl(Pool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public Uni<Optional<Account>> findById(UUID id) {
+        return queryOne(FIND_BY_ID_SQL, Tuple.of(id), PgReactiveAccountPersistenceImpl::toAccount);
+    }
+
+    @Override
+    public Uni<Optional<Account>> findByAccountNumber(String accountNumber) {
+        return queryOne(FIND_BY_NUMBER_SQL, Tuple.of(accountNumber), PgReactiveAccountPersistenceImpl::toAccount);
+    }
+
+    @Override
+    public Uni<Optional<AccountBalance>> findBalance(UUID id) {
+        return queryOne(FIND_BALANCE_SQL, Tuple.of(id), PgReactiveAccountPersistenceImpl::toBalance);
+    }
+
+    private <T> Uni<Optional<T>> queryOne(String sql, Tuple params, Function<Row, T> mapper) {
+        return pool.preparedQuery(sql).execute(params)
+                .map(RowSet::iterator)
+                .map(rows -> rows.hasNext() ? Optional.of(mapper.apply(rows.next())) : Optional.empty());
+    }
+
+    private static Account toAccount(Row row) {
+        OffsetDateTime createdAt = row.getOffsetDateTime("created_at");
+        OffsetDateTime updatedAt = row.getOffsetDateTime("updated_at");
+        return Account.builder()
+                .id(row.getUUID("account_id"))
+                .customerId(row.getUUID("customer_id"))
+                .accountNumber(row.getString("account_number"))
+                .type(Account.AccountType.valueOf(row.getString("account_type")))
+                .balance(row.getBigDecimal("balance"))
+                .currency(row.getString("currency"))
+                .status(Account.AccountStatus.valueOf(row.getString("status")))
+                .createdAt(createdAt != null ? createdAt.toInstant() : null)
+                .updatedAt(updatedAt != null ? updatedAt.toInstant() : null)
+                .build();
+    }
+
+    private static AccountBalance toBalance(Row row) {
+        return new AccountBalance(row.getUUID("account_id"), row.getUUID("customer_id"),
+                row.getBigDecimal("balance"), row.getString("currency"),
+                Account.AccountStatus.valueOf(row.getString("status")));
+    }
+}
@@ -0,0 +1,89 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.util.function.BooleanSupplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.common.ReadConsistency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.Arc;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Decides whether a read may go to the replica. Only reads made for an API request qualify, and
+ * they stay on the primary inside a transaction, so they see the transaction's own writes, when
+ * the request asked for strong consistency, when the caller's last write may not have been
+ * replayed yet, and while the replica is missing or lagging too far behind. Kafka and scheduled
+ * work have no request and always read the primary: verification must not approve a debit
+ * against a stale balance.
+ */
+@ApplicationScoped
+public class ReadRouter {
+
+    private final ReadConsistency readConsistency;
+    private final TransactionSynchronizationRegistry transactionRegistry;
+    private final ReplicaLagMonitor replicaLagMonitor;
+    private final BooleanSupplier requestActive;
+    private final boolean enabled;
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+
+    @Inject
+    public ReadRouter(ReadConsistency readConsistency, TransactionSynchronizationRegistry transactionRegistry,
+            ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.replica.enabled") boolean enabled) {
+        this(readConsistency, transactionRegistry, replicaLagMonitor, meterRegistry,
+                () -> Arc.container().requestContext().isActive(), enabled);
+    }
+
+    ReadRouter(ReadConsistency readConsistency, TransactionSynchronizationRegistry transactionRegistry,
+            ReplicaLagMonitor replicaLagMonitor, MeterRegistry meterRegistry, BooleanSupplier requestActive,
+            boolean enabled) {
+        this.readConsistency = readConsistency;
+        this.transactionRegistry = transactionRegistry;
+        this.replicaLagMonitor = replicaLagMonitor;
+        this.requestActive = requestActive;
+        this.enabled = enabled;
+        this.primaryReads = readCounter(meterRegistry, "primary");
+        this.replicaReads = readCounter(meterRegistry, "replica");
+    }
+
+    /**
+     * @return whether the current read should go to the replica
+     */
+    public boolean useReplica() {
+        boolean replica = enabled
+                && replicaLagMonitor.isHealthy()
+                && transactionRegistry.getTransactionKey() == null
+                && requestAllowsReplica();
+        (replica ? replicaReads : primaryReads).increment();
+        return replica;
+    }
+
+    /**
+     * Note that the current request wrote, so its caller is kept on the primary until the replica
+     * has caught up with the write
+     */
+    public void recordWrite() {
+        if (requestActive.getAsBoolean()) {
+            readConsistency.markWritten();
+        }
+    }
+
+    private boolean requestAllowsReplica() {
+        return requestActive.getAsBoolean()
+                && !readConsistency.isStrong()
+                && !readConsistency.isWritten()
+                && replicaLagMonitor.hasReplayed(readConsistency.getLastWriteMillis());
+    }
+
+    private static Counter readCounter(MeterRegistry meterRegistry, String target) {
+        return Counter.builder("account.persistence.reads")
+                .description("Routed account reads by target database")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+}
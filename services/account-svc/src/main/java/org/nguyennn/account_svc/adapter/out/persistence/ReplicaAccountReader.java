@@ -0,0 +1,188 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Read-only account queries against the replica datasource. The replica is not part of the
+ * Hibernate persistence unit, so rows are mapped straight from JDBC. Balance queries share their
+ * SQL with the primary repositories, which leave the parameter placeholders open for the JDBC
+ * {@code ?} used here.
+ */
+@ApplicationScoped
+public class ReplicaAccountReader {
+
+    private static final String ACCOUNT_COLUMNS = """
+            a.account_id, a.customer_id, a.account_number, CAST(a.account_type AS text), a.currency,
+            a.balance + CASE WHEN a.balance_shards > 0
+                             THEN (SELECT COALESCE(SUM(s.balance), 0) FROM account_balance_shards s
+                                   WHERE s.account_id = a.account_id)
+                             ELSE 0 END,
+            CAST(a.status AS text), a.created_at, a.updated_at
+            """;
+
+    private static final String FIND_BY_CUSTOMER_AFTER_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM accounts a WHERE a.customer_id = ? AND a.account_id > ? ORDER BY a.account_id LIMIT ?";
+
+    private static final String FIND_BY_CUSTOMER_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM accounts a WHERE a.customer_id = ? ORDER BY a.account_id OFFSET ? LIMIT ?";
+
+    private static final String FIND_BY_STATUS_SQL = "SELECT " + ACCOUNT_COLUMNS
+            + " FROM accounts a WHERE a.status = CAST(? AS account_status_enum)";
+
+    private static final String COUNT_BY_CUSTOMER_SQL = "SELECT count(*) FROM accounts WHERE customer_id = ?";
+
+    private static final String FIND_BALANCES_SQL = AccountRepository.BALANCES_SQL.formatted("?");
+
+    private static final String FIND_BALANCE_AT_SQL = BalanceCheckpointRepository.BALANCE_AT_SQL.formatted("?", "?");
+
+    /** Sorts before every random UUID, so the first page needs no separate statement */
+    private static final UUID MIN_UUID = new UUID(0, 0);
+
+    private final AgroalDataSource replica;
+
+    @Inject
+    public ReplicaAccountReader(@DataSource("replica") AgroalDataSource replica) {
+        this.replica = replica;
+    }
+
+    public List<Account> findByCustomerIdAfter(UUID customerId, UUID afterId, int limit) {
+        return query(FIND_BY_CUSTOMER_AFTER_SQL, customerId, afterId != null ? afterId : MIN_UUID, limit);
+    }
+
+    public List<Account> findByCustomerId(UUID customerId, int offset, int limit) {
+        return query(FIND_BY_CUSTOMER_SQL, customerId, offset, limit);
+    }
+
+    public List<Account> findByStatus(Account.AccountStatus status) {
+        return query(FIND_BY_STATUS_SQL, status.name());
+    }
+
+    public long countByCustomerId(UUID customerId) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(COUNT_BY_CUSTOMER_SQL)) {
+            statement.setObject(1, customerId);
+            try (ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replica query failed", e);
+        }
+    }
+
+    /**
+     * Streams accounts with a status through a server-side cursor, which the driver only opens
+     * with autocommit off, fetching {@code fetchSize} rows per round trip
+     */
+    public void forEachByStatus(Account.AccountStatus status, int fetchSize, Duration timeout,
+            Consumer<Account> consumer) {
+        try (Connection connection = replica.getConnection()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(FIND_BY_STATUS_SQL)) {
+                statement.setFetchSize(fetchSize);
+                statement.setQueryTimeout((int) timeout.toSeconds());
+                statement.setString(1, status.name());
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        consumer.accept(toAccount(result));
+                    }
+                }
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replica query failed", e);
+        }
+    }
+
+    public List<AccountBalance> findBalances(Collection<UUID> accountIds) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BALANCES_SQL)) {
+            statement.setArray(1, connection.createArrayOf("uuid", accountIds.toArray()));
+            try (ResultSet result = statement.executeQuery()) {
+                List<AccountBalance> balances = new ArrayList<>();
+                while (result.next()) {
+                    balances.add(new AccountBalance(result.getObject(1, UUID.class), result.getObject(2, UUID.class),
+                            result.getBigDecimal(3), result.getString(4),
+                            Account.AccountStatus.valueOf(result.getString(5))));
+                }
+                return balances;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replica query failed", e);
+        }
+    }
+
+    public Optional<HistoricalBalance> findBalanceAt(UUID accountId, OffsetDateTime asOf) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(FIND_BALANCE_AT_SQL)) {
+            statement.setObject(1, accountId);
+            statement.setObject(2, asOf);
+            try (ResultSet result = statement.executeQuery()) {
+                if (!result.next()) {
+                    return Optional.empty();
+                }
+                BigDecimal balance = result.getBigDecimal(3);
+                return Optional.of(new HistoricalBalance(result.getObject(1, UUID.class), balance,
+                        result.getString(2), asOf));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replica query failed", e);
+        }
+    }
+
+    private List<Account> query(String sql, Object... params) {
+        try (Connection connection = replica.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setObject(i + 1, params[i]);
+            }
+            try (ResultSet result = statement.executeQuery()) {
+                List<Account> accounts = new ArrayList<>();
+                while (result.next()) {
+                    accounts.add(toAccount(result));
+                }
+                return accounts;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Replica query failed", e);
+        }
+    }
+
+    private static Account toAccount(ResultSet result) throws SQLException {
+        OffsetDateTime createdAt = result.getObject(8, OffsetDateTime.class);
+        OffsetDateTime updatedAt = result.getObject(9, OffsetDateTime.class);
+        return Account.builder()
+                .id(result.getObject(1, UUID.class))
+                .customerId(result.getObject(2, UUID.class))
+                .accountNumber(result.getString(3))
+                .type(Account.AccountType.valueOf(result.getString(4)))
+                .currency(result.getString(5))
+                .balance(result.getBigDecimal(6))
+                .status(Account.AccountStatus.valueOf(result.getString(7)))
+                .createdAt(createdAt != null ? createdAt.toInstant() : null)
+                .updatedAt(updatedAt != null ? updatedAt.toInstant() : null)
+                .build();
+    }
+}
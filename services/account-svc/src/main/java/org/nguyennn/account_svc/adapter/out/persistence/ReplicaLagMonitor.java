@@ -0,0 +1,111 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.agroal.api.AgroalDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.quarkus.agroal.DataSource;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Measures how far the replica lags behind the primary. The replica is only considered usable
+ * while the last check succeeded and the lag is within {@code account-svc.replica.max-lag}. Each
+ * check also records up to when the replica has replayed the primary's commits, so a client's
+ * own earlier writes can be checked against it.
+ */
+@ApplicationScoped
+public class ReplicaLagMonitor {
+
+    /**
+     * Seconds since the last replayed transaction, or 0 when the replica has replayed everything
+     * it received. A database that is not in recovery is its own primary and never lags.
+     */
+    private static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0)
+                   END
+            """;
+
+    private final AgroalDataSource replica;
+    private final boolean enabled;
+    private final long maxLagMillis;
+
+    private volatile long lagMillis;
+    private volatile boolean healthy;
+    private volatile long replayedUntilMillis;
+
+    @Inject
+    public ReplicaLagMonitor(@DataSource("replica") AgroalDataSource replica, MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.replica.enabled") boolean enabled,
+            @ConfigProperty(name = "account-svc.replica.max-lag") Duration maxLag) {
+        this.replica = replica;
+        this.enabled = enabled;
+        this.maxLagMillis = maxLag.toMillis();
+        TimeGauge.builder("account.replica.lag", this, TimeUnit.MILLISECONDS, monitor -> monitor.lagMillis)
+                .description("Replication lag of the read replica at the last check")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return whether reads may currently be sent to the replica
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    /**
+     * @param writeMillis epoch milliseconds at which a write had committed on the primary
+     * @return whether the replica had replayed that write at the last check
+     */
+    public boolean hasReplayed(long writeMillis) {
+        return writeMillis <= replayedUntilMillis;
+    }
+
+    @Scheduled(every = "{account-svc.replica.lag-check-every}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void check() {
+        if (!enabled) {
+            return;
+        }
+        long checkedAt = System.currentTimeMillis();
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_SQL)) {
+            result.next();
+            record(checkedAt, (long) (result.getDouble(1) * 1000));
+        } catch (SQLException e) {
+            if (healthy) {
+                Log.warn("Replica lag check failed, reading from the primary", e);
+            }
+            healthy = false;
+        }
+    }
+
+    /**
+     * Record the lag measured by a check that ran at {@code checkedAt}
+     */
+    void record(long checkedAt, long lagMillis) {
+        boolean wasHealthy = healthy;
+        this.lagMillis = lagMillis;
+        healthy = lagMillis <= maxLagMillis;
+        replayedUntilMillis = checkedAt - lagMillis;
+        if (wasHealthy && !healthy) {
+            Log.warn("Replica lags " + lagMillis + " ms behind, reading from the primary");
+        } else if (!wasHealthy && healthy) {
+            Log.info("Replica caught up, reading from the replica again");
+        }
+    }
+}
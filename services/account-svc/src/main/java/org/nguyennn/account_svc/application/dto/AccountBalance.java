@@ -0,0 +1,18 @@
+package org.nguyennn.account_svc.application.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.domain.Account;
+
+/**
+ * Immutable balance snapshot of an account, safe to share through the balance cache
+ */
+public record AccountBalance(UUID accountId, UUID customerId, BigDecimal balance, String currency,
+        Account.AccountStatus status) {
+
+    public static AccountBalance from(Account account) {
+        return new AccountBalance(account.getId(), account.getCustomerId(), account.getBalance(),
+                account.getCurrency(), account.getStatus());
+    }
+}
@@ -2,6 +2,11 @@ package org.nguyennn.account_svc.application.dto;
 
 import java.math.BigDecimal;
 
+/**
+ * Outcome of a balance update. {@code exact} is false when the balances come from a statement
+ * snapshot that may miss shard credits committed concurrently, so they must not be cached.
+ */
 public record AccountBalanceUpdateResult(BigDecimal oldBalance, BigDecimal newBalance,
-        String transactionId, String accountId, String customerId, String currencyCode) {
+        String transactionId, String accountId, String customerId, String currencyCode, String status,
+        boolean exact) {
 }
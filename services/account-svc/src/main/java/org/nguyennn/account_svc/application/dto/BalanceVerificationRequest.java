@@ -0,0 +1,11 @@
+package org.nguyennn.account_svc.application.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * A single balance verification, as carried by a transaction-initiated event. The transaction
+ * ID and currency are absent for legacy messages.
+ */
+public record BalanceVerificationRequest(UUID transactionId, UUID accountId, BigDecimal amount, String currency) {
+}
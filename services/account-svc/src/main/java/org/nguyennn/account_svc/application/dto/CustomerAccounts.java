@@ -5,5 +5,14 @@ import java.util.UUID;
 
 import org.nguyennn.account_svc.domain.Account;
 
-public record CustomerAccounts(UUID customerId, long count, List<Account> accounts) {
+/**
+ * A page of a customer's accounts. {@code count} is the customer's total number of accounts and
+ * may be null when it was not requested; {@code nextAfter} is the account ID to continue a
+ * keyset scan from, or null on the last page.
+ */
+public record CustomerAccounts(UUID customerId, Long count, List<Account> accounts, UUID nextAfter) {
+
+    public CustomerAccounts(UUID customerId, long count, List<Account> accounts) {
+        this(customerId, count, accounts, null);
+    }
 }
@@ -0,0 +1,11 @@
+package org.nguyennn.account_svc.application.dto;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Balance of an account as of a point in time
+ */
+public record HistoricalBalance(UUID accountId, BigDecimal balance, String currency, OffsetDateTime asOf) {
+}
@@ -0,0 +1,29 @@
+package org.nguyennn.account_svc.application.exceptions;
+
+import java.util.List;
+
+/**
+ * AccountBatchValidationException is thrown when accounts of a batch fail validation. Nothing
+ * of the batch is created.
+ */
+public class AccountBatchValidationException extends RuntimeException {
+
+    private final List<Violation> violations;
+
+    public AccountBatchValidationException(List<Violation> violations) {
+        super("Validation failed for " + violations.size() + " account field(s)");
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * @param index   the position of the account in the batch
+     * @param field   the invalid field
+     * @param message why it is invalid
+     */
+    public record Violation(int index, String field, String message) {
+    }
+}
@@ -1,15 +1,23 @@
 package org.nguyennn.account_svc.application.in;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
 import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
 import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
 import org.nguyennn.account_svc.application.dto.CustomerAccounts;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
 import org.nguyennn.account_svc.domain.Account;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -27,6 +35,16 @@ public interface AccountUseCases {
      */
     Account createAccount(@NotNull @Valid Account account);
 
+    /**
+     * Create many accounts at once. Accounts without an ID get a time-ordered one. The whole
+     * batch is validated first, including account number and customer checks, and either all
+     * accounts are created or none.
+     *
+     * @param accounts the accounts to create
+     * @return the created accounts, in request order
+     */
+    List<Account> createAccounts(@NotNull List<Account> accounts);
+
     /**
      * Get an account by ID
      *
@@ -43,6 +61,32 @@ public interface AccountUseCases {
      */
     Account getAccountByNumber(@NotNull String accountNumber);
 
+    /**
+     * Get the balance of an account, served from the balance cache when possible
+     *
+     * @param accountId the account ID
+     * @return the account balance if found
+     */
+    Optional<AccountBalance> getAccountBalance(@NotNull UUID accountId);
+
+    /**
+     * Get the balances of several accounts, served from the balance cache when possible and
+     * otherwise with a single query
+     *
+     * @param accountIds the account IDs
+     * @return the balances of the accounts that exist, by account ID
+     */
+    Map<UUID, AccountBalance> getAccountBalances(@NotNull Collection<UUID> accountIds);
+
+    /**
+     * Get the balance an account had at a point in time
+     *
+     * @param accountId the account ID
+     * @param asOf      the point in time
+     * @return the balance at that time if the account exists
+     */
+    Optional<HistoricalBalance> getAccountBalanceAt(@NotNull UUID accountId, @NotNull OffsetDateTime asOf);
+
     /**
      * Get a paginated list of accounts for a specific customer
      *
@@ -54,6 +98,18 @@ public interface AccountUseCases {
     CustomerAccounts getAccountsByCustomerId(@NotNull UUID customerId, @PositiveOrZero int offset,
             @Min(value = 1) int limit);
 
+    /**
+     * Get a page of accounts for a specific customer, continuing after a given account
+     *
+     * @param customerId the customer ID
+     * @param afterId the last account ID of the previous page, or null for the first page
+     * @param limit the maximum number of items to return
+     * @param includeCount whether to count all of the customer's accounts
+     * @return customer accounts with the key to continue from
+     */
+    CustomerAccounts getAccountsByCustomerIdAfter(@NotNull UUID customerId, UUID afterId,
+            @Min(value = 1) int limit, boolean includeCount);
+
     /**
      * Get all accounts with a specific status
      *
@@ -62,6 +118,14 @@ public interface AccountUseCases {
      */
     List<Account> getAccountsByStatus(@NotNull Account.AccountStatus status);
 
+    /**
+     * Stream all accounts with a specific status, one at a time
+     *
+     * @param status the account status
+     * @param consumer receives each account
+     */
+    void streamAccountsByStatus(@NotNull Account.AccountStatus status, @NotNull Consumer<Account> consumer);
+
     /**
      * Update an existing account
      *
@@ -70,6 +134,25 @@ public interface AccountUseCases {
      */
     Account updateAccount(@NotNull @Valid Account account);
 
+    /**
+     * Update only the status of an account
+     *
+     * @param accountId the ID of the account
+     * @param status the new status
+     * @return the updated account
+     */
+    Account updateAccountStatus(@NotNull UUID accountId, @NotNull Account.AccountStatus status);
+
+    /**
+     * Spread credits to an account over several balance shards so that concurrent credits do
+     * not queue on one row, or stop sharding with 0. Meant for hot accounts such as merchants;
+     * balances read and updated through this interface always include the shards.
+     *
+     * @param accountId the ID of the account
+     * @param shards the number of shards, 0 to turn sharding off
+     */
+    void configureBalanceShards(@NotNull UUID accountId, @Min(0) @Max(64) int shards);
+
     /**
      * Delete an account
      *
@@ -78,12 +161,16 @@ public interface AccountUseCases {
     void deleteAccount(@NotNull UUID accountId);
 
     /**
-     * Update the balance of an account. Must be idempotent.
+     * Update the balance of an account and record its ledger entry. Must be idempotent. The
+     * transaction must already exist, since ledger entries reference it.
      *
+     * @param transactionId the ID of the transaction causing the update
      * @param accountId the ID of the account to update
-     * @param amount the amount to update
+     * @param amount the amount to update, positive to credit and negative to debit
+     * @return the balances before and after the update
      */
-    AccountBalanceUpdateResult updateAccountBalance(UUID accountId, double amount);
+    AccountBalanceUpdateResult updateAccountBalance(@NotNull UUID transactionId, @NotNull UUID accountId,
+            @NotNull BigDecimal amount);
 
     /**
      * Verify the balance of an account. Must be idempotent.
@@ -93,4 +180,13 @@ public interface AccountUseCases {
      */
 
     AccountBalanceVericationResult verifyAccountBalance(UUID accountId, BigDecimal amount);
+
+    /**
+     * Verify the balances for a batch of requests, resolving all referenced accounts at once.
+     * Must be idempotent.
+     *
+     * @param requests the verifications to perform
+     * @return one result per request, in request order
+     */
+    List<AccountBalanceVericationResult> verifyAccountBalances(@NotNull List<BalanceVerificationRequest> requests);
 }
@@ -0,0 +1,51 @@
+package org.nguyennn.account_svc.application.in;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Non-blocking read use cases, served on the event loop
+ */
+public interface ReactiveAccountUseCases {
+
+    /**
+     * Get an account by its ID
+     *
+     * @param accountId the account ID
+     * @return the account if found
+     */
+    Uni<Optional<Account>> getAccountById(@NotNull UUID accountId);
+
+    /**
+     * Get an account by its account number
+     *
+     * @param accountNumber the account number
+     * @return the account if found
+     */
+    Uni<Optional<Account>> getAccountByNumber(@NotNull String accountNumber);
+
+    /**
+     * Get the balance snapshot of an account, served from cache when possible
+     *
+     * @param accountId the account ID
+     * @return the balance snapshot if the account exists
+     */
+    Uni<Optional<AccountBalance>> getAccountBalance(@NotNull UUID accountId);
+
+    /**
+     * Verify that an account can cover an amount without changing it
+     *
+     * @param accountId the account ID
+     * @param amount the amount to verify
+     * @return the verification result
+     */
+    Uni<AccountBalanceVericationResult> verifyAccountBalance(@NotNull UUID accountId, @NotNull BigDecimal amount);
+}
@@ -1,5 +1,48 @@
 package org.nguyennn.account_svc.application.out.cache;
 
-public class AccountBalanceCache {
+import java.util.Optional;
+import java.util.UUID;
 
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Port for the in-process account balance cache
+ */
+public interface AccountBalanceCache {
+
+    /**
+     * Look up a cached balance
+     *
+     * @param accountId the account ID
+     * @return the cached balance if present
+     */
+    Optional<AccountBalance> get(@NotNull UUID accountId);
+
+    /**
+     * Start loading a balance that is not cached. Take the stamp before reading the database.
+     *
+     * @param accountId the account ID
+     * @return the stamp to pass to {@link #putLoaded}
+     */
+    long beginLoad(@NotNull UUID accountId);
+
+    /**
+     * Cache a balance read from the database, unless the account was invalidated since
+     * {@link #beginLoad}. The read may have started before a concurrent write committed, and
+     * caching it after that write's invalidation would serve the old balance until it expires.
+     *
+     * @param balance the loaded balance
+     * @param stamp   the stamp returned by {@link #beginLoad} before the read
+     */
+    void putLoaded(@NotNull AccountBalance balance, long stamp);
+
+    /**
+     * Drop a cached balance. Inside a transaction it is dropped again when the transaction
+     * completes, so a balance loaded in the meantime is not kept.
+     *
+     * @param accountId the account ID
+     */
+    void invalidate(@NotNull UUID accountId);
 }
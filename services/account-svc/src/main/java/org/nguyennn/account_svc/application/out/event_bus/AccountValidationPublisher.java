@@ -1,5 +1,16 @@
 package org.nguyennn.account_svc.application.out.event_bus;
 
+import java.util.List;
+
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+
 public interface AccountValidationPublisher {
 
+    /**
+     * Publish validation results. Must be called inside the transaction that produced them: the
+     * results are only published if that transaction commits.
+     *
+     * @param results the results to publish
+     */
+    void publish(List<AccountBalanceVericationResult> results);
 }
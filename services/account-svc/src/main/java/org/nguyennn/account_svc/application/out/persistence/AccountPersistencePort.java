@@ -1,10 +1,18 @@
 package org.nguyennn.account_svc.application.out.persistence;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
 import org.nguyennn.account_svc.application.dto.CustomerAccounts;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
 import org.nguyennn.account_svc.domain.Account;
 
 import jakarta.validation.Valid;
@@ -23,6 +31,26 @@ public interface AccountPersistencePort {
      */
     Account saveAccount(@NotNull @Valid Account account);
 
+    /**
+     * Insert new accounts in bulk. Every account must already have its ID.
+     *
+     * @param accounts the accounts to insert
+     * @return the inserted accounts, with their creation timestamps
+     */
+    List<Account> saveAccounts(@NotNull List<Account> accounts);
+
+    /**
+     * @param accountNumbers account numbers to look up
+     * @return those that are already taken
+     */
+    Set<String> findExistingAccountNumbers(@NotNull Collection<String> accountNumbers);
+
+    /**
+     * @param customerIds customer IDs to look up
+     * @return those that exist
+     */
+    Set<UUID> findExistingCustomerIds(@NotNull Collection<UUID> customerIds);
+
     /**
      * Find an account by ID
      *
@@ -31,6 +59,63 @@ public interface AccountPersistencePort {
      */
     Optional<Account> findById(@NotNull UUID id);
 
+    /**
+     * Find several accounts by ID in a single round trip
+     *
+     * @param ids the account IDs
+     * @return the accounts that exist, in no particular order
+     */
+    List<Account> findAllByIds(@NotNull Collection<UUID> ids);
+
+    /**
+     * Find the balance of an account without loading the full account
+     *
+     * @param id the account ID
+     * @return the balance if the account exists
+     */
+    Optional<AccountBalance> findBalance(@NotNull UUID id);
+
+    /**
+     * Find the balances of several accounts in a single round trip, without loading the accounts.
+     * Outside a transaction an API request may be served by a slightly lagging replica.
+     *
+     * @param ids the account IDs
+     * @return the balances of the accounts that exist, in no particular order
+     */
+    List<AccountBalance> findBalances(@NotNull Collection<UUID> ids);
+
+    /**
+     * Find the balance an account had at a point in time, from the nearest balance checkpoint
+     * and the ledger entries posted since
+     *
+     * @param id   the account ID
+     * @param asOf the point in time
+     * @return the balance if the account exists
+     */
+    Optional<HistoricalBalance> findBalanceAt(@NotNull UUID id, @NotNull OffsetDateTime asOf);
+
+    /**
+     * Atomically apply a signed amount to an account balance and record the ledger entry. The
+     * update only happens if the account is active, the balance does not go negative and the
+     * transaction was not already applied to the account.
+     *
+     * @param transactionId the transaction the ledger entry belongs to
+     * @param accountId     the account ID
+     * @param delta         positive to credit, negative to debit
+     * @return the old and new balances, or empty if the update was rejected
+     */
+    Optional<AccountBalanceUpdateResult> updateBalance(@NotNull UUID transactionId, @NotNull UUID accountId,
+            @NotNull BigDecimal delta);
+
+    /**
+     * Check whether a transaction already has a ledger entry for an account
+     *
+     * @param transactionId the transaction ID
+     * @param accountId     the account ID
+     * @return true if the entry exists
+     */
+    boolean hasLedgerEntry(@NotNull UUID transactionId, @NotNull UUID accountId);
+
     /**
      * Find an account by account number
      *
@@ -49,6 +134,17 @@ public interface AccountPersistencePort {
      */
     CustomerAccounts findByCustomerId(@NotNull UUID customerId, int offset, int limit);
 
+    /**
+     * Find accounts by customer ID with keyset pagination, ordered by account ID
+     *
+     * @param customerId   the customer ID
+     * @param afterId      the last account ID of the previous page, or null for the first page
+     * @param limit        maximum number of accounts to return
+     * @param includeCount whether to also count all of the customer's accounts
+     * @return a customer's page of accounts
+     */
+    CustomerAccounts findByCustomerIdAfter(@NotNull UUID customerId, UUID afterId, int limit, boolean includeCount);
+
     /**
      * Find accounts with a specific status
      *
@@ -57,6 +153,34 @@ public interface AccountPersistencePort {
      */
     List<Account> findByStatus(@NotNull Account.AccountStatus status);
 
+    /**
+     * Stream accounts with a specific status without materializing them. Accounts are handed to
+     * the consumer one at a time while the result is being read, in no particular order.
+     *
+     * @param status   the account status
+     * @param consumer receives each account
+     */
+    void streamByStatus(@NotNull Account.AccountStatus status, @NotNull Consumer<Account> consumer);
+
+    /**
+     * Change only the status of an account, leaving every other column untouched
+     *
+     * @param accountId the account ID
+     * @param status    the new status
+     * @return the updated account, or empty if it does not exist
+     */
+    Optional<Account> updateStatus(@NotNull UUID accountId, @NotNull Account.AccountStatus status);
+
+    /**
+     * Spread future credits to an account over a number of balance shards, or stop sharding with
+     * 0. Reads and balance updates keep working on the total balance either way.
+     *
+     * @param accountId the account ID
+     * @param shards    the number of shards, 0 to turn sharding off
+     * @return whether the account exists
+     */
+    boolean configureBalanceShards(@NotNull UUID accountId, int shards);
+
     /**
      * Delete an account by ID
      *
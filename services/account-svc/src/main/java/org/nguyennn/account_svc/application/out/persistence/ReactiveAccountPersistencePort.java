@@ -0,0 +1,41 @@
+package org.nguyennn.account_svc.application.out.persistence;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Non-blocking flavour of the read side of {@link AccountPersistencePort}. Writes stay on the
+ * blocking port, which owns the transactional balance and ledger updates.
+ */
+public interface ReactiveAccountPersistencePort {
+
+    /**
+     * Find an account by its ID
+     *
+     * @param id the account ID
+     * @return the account if found
+     */
+    Uni<Optional<Account>> findById(@NotNull UUID id);
+
+    /**
+     * Find an account by its account number
+     *
+     * @param accountNumber the account number
+     * @return the account if found
+     */
+    Uni<Optional<Account>> findByAccountNumber(@NotNull String accountNumber);
+
+    /**
+     * Read only the balance columns of an account
+     *
+     * @param id the account ID
+     * @return the balance snapshot if found
+     */
+    Uni<Optional<AccountBalance>> findBalance(@NotNull UUID id);
+}
@@ -1,37 +1,131 @@
 package org.nguyennn.account_svc.application.services;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Consumer;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
 import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
 import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
 import org.nguyennn.account_svc.application.dto.CustomerAccounts;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.nguyennn.account_svc.application.exceptions.AccountBalanceUpdateException;
+import org.nguyennn.account_svc.application.exceptions.AccountBatchValidationException;
 import org.nguyennn.account_svc.application.exceptions.AccountNotFoundException;
 import org.nguyennn.account_svc.application.in.AccountUseCases;
+import org.nguyennn.account_svc.application.out.cache.AccountBalanceCache;
 import org.nguyennn.account_svc.application.out.persistence.AccountPersistencePort;
+import org.nguyennn.account_svc.common.FixedPoint;
+import org.nguyennn.account_svc.common.Measured;
+import org.nguyennn.account_svc.common.UuidV7;
 import org.nguyennn.account_svc.domain.Account;
 
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 
+@Measured("use-case")
 @ApplicationScoped
 public class AccountUseCasesImpl implements AccountUseCases {
 
+    /** Violations reported for a rejected batch; the rest are not collected */
+    private static final int MAX_REPORTED_VIOLATIONS = 100;
+
     private final AccountPersistencePort accountPersistencePort;
+    private final AccountBalanceCache accountBalanceCache;
+    private final Validator validator;
+    private final int maxBatchSize;
+    private final int maxBalanceLookupSize;
 
     @Inject
-    public AccountUseCasesImpl(AccountPersistencePort accountPersistencePort) {
+    public AccountUseCasesImpl(AccountPersistencePort accountPersistencePort,
+            AccountBalanceCache accountBalanceCache, Validator validator,
+            @ConfigProperty(name = "account-svc.accounts.batch.max-size") int maxBatchSize,
+            @ConfigProperty(name = "account-svc.accounts.balance-lookup.max-size") int maxBalanceLookupSize) {
         this.accountPersistencePort = accountPersistencePort;
+        this.accountBalanceCache = accountBalanceCache;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+        this.maxBalanceLookupSize = maxBalanceLookupSize;
     }
 
     @Override
     public Account createAccount(@NotNull @Valid Account account) {
-        return accountPersistencePort.saveAccount(account);
+        Account savedAccount = accountPersistencePort.saveAccount(account);
+        accountBalanceCache.invalidate(savedAccount.getId());
+        return savedAccount;
+    }
+
+    @Override
+    public List<Account> createAccounts(@NotNull List<Account> accounts) {
+        if (accounts.isEmpty() || accounts.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch must contain between 1 and " + maxBatchSize + " accounts");
+        }
+
+        List<Account> identified = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            identified.add(account.getId() != null ? account : account.toBuilder().id(UuidV7.next()).build());
+        }
+        validateBatch(identified);
+        // Balances are cached on first read; caching a whole portfolio up front would evict hot accounts
+        return accountPersistencePort.saveAccounts(identified);
+    }
+
+    /**
+     * Validates every account, then checks account numbers and customers with one query each
+     */
+    private void validateBatch(List<Account> accounts) {
+        List<AccountBatchValidationException.Violation> violations = new ArrayList<>();
+        Set<String> accountNumbers = new HashSet<>();
+        Set<UUID> customerIds = new HashSet<>();
+        for (int i = 0; i < accounts.size() && violations.size() < MAX_REPORTED_VIOLATIONS; i++) {
+            Account account = accounts.get(i);
+            for (ConstraintViolation<Account> violation : validator.validate(account)) {
+                violations.add(new AccountBatchValidationException.Violation(i,
+                        violation.getPropertyPath().toString(), violation.getMessage()));
+            }
+            if (account.getAccountNumber() != null && !accountNumbers.add(account.getAccountNumber())) {
+                violations.add(new AccountBatchValidationException.Violation(i, "accountNumber",
+                        "Account number appears more than once in the batch"));
+            }
+            if (account.getCustomerId() != null) {
+                customerIds.add(account.getCustomerId());
+            }
+        }
+        if (violations.isEmpty()) {
+            Set<String> taken = accountPersistencePort.findExistingAccountNumbers(accountNumbers);
+            Set<UUID> knownCustomers = accountPersistencePort.findExistingCustomerIds(customerIds);
+            for (int i = 0; i < accounts.size() && violations.size() < MAX_REPORTED_VIOLATIONS; i++) {
+                Account account = accounts.get(i);
+                if (taken.contains(account.getAccountNumber())) {
+                    violations.add(new AccountBatchValidationException.Violation(i, "accountNumber",
+                            "Account number already exists"));
+                }
+                if (!knownCustomers.contains(account.getCustomerId())) {
+                    violations.add(new AccountBatchValidationException.Violation(i, "customerId",
+                            "Customer not found"));
+                }
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new AccountBatchValidationException(violations);
+        }
     }
 
     @Override
@@ -44,38 +138,199 @@ public class AccountUseCasesImpl implements AccountUseCases {
         return accountPersistencePort.findByAccountNumber(accountNumber);
     }
 
+    @Override
+    public Optional<AccountBalance> getAccountBalance(@NotNull UUID accountId) {
+        Optional<AccountBalance> cached = accountBalanceCache.get(accountId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long stamp = accountBalanceCache.beginLoad(accountId);
+        Optional<AccountBalance> balance = accountPersistencePort.findBalance(accountId);
+        balance.ifPresent(loaded -> accountBalanceCache.putLoaded(loaded, stamp));
+        return balance;
+    }
+
+    @Override
+    public Map<UUID, AccountBalance> getAccountBalances(@NotNull Collection<UUID> accountIds) {
+        if (accountIds.isEmpty() || accountIds.size() > maxBalanceLookupSize) {
+            throw new IllegalArgumentException(
+                    "A balance lookup must contain between 1 and " + maxBalanceLookupSize + " account IDs");
+        }
+        Map<UUID, AccountBalance> balances = new HashMap<>();
+        Set<UUID> misses = new HashSet<>();
+        for (UUID accountId : accountIds) {
+            accountBalanceCache.get(accountId).ifPresentOrElse(
+                    balance -> balances.put(accountId, balance),
+                    () -> misses.add(accountId));
+        }
+        if (!misses.isEmpty()) {
+            // Not cached: the lookup may be served by a replica that has not replayed the write
+            // which invalidated the entry
+            for (AccountBalance balance : accountPersistencePort.findBalances(misses)) {
+                balances.put(balance.accountId(), balance);
+            }
+        }
+        return balances;
+    }
+
+    @Override
+    public Optional<HistoricalBalance> getAccountBalanceAt(@NotNull UUID accountId, @NotNull OffsetDateTime asOf) {
+        return accountPersistencePort.findBalanceAt(accountId, asOf);
+    }
+
     @Override
     public CustomerAccounts getAccountsByCustomerId(@NotNull UUID customerId,
             @PositiveOrZero int offset, @Min(value = 1) int limit) {
         return accountPersistencePort.findByCustomerId(customerId, offset, limit);
     }
 
+    @Override
+    public CustomerAccounts getAccountsByCustomerIdAfter(@NotNull UUID customerId, UUID afterId,
+            @Min(value = 1) int limit, boolean includeCount) {
+        return accountPersistencePort.findByCustomerIdAfter(customerId, afterId, limit, includeCount);
+    }
+
     @Override
     public List<Account> getAccountsByStatus(@NotNull Account.AccountStatus status) {
         return accountPersistencePort.findByStatus(status);
     }
 
+    @Override
+    public void streamAccountsByStatus(@NotNull Account.AccountStatus status, @NotNull Consumer<Account> consumer) {
+        accountPersistencePort.streamByStatus(status, consumer);
+    }
+
     @Override
     public Account updateAccount(@NotNull @Valid Account account) {
         Optional<Account> existingAccount = accountPersistencePort.findById(account.getId());
         if (existingAccount.isEmpty()) {
             throw new AccountNotFoundException("Account not found with ID: " + account.getId());
         }
-        return accountPersistencePort.saveAccount(account);
+        Account savedAccount = accountPersistencePort.saveAccount(account);
+        accountBalanceCache.invalidate(savedAccount.getId());
+        return savedAccount;
+    }
+
+    @Override
+    public Account updateAccountStatus(@NotNull UUID accountId, @NotNull Account.AccountStatus status) {
+        Account updatedAccount = accountPersistencePort.updateStatus(accountId, status)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        accountBalanceCache.invalidate(accountId);
+        return updatedAccount;
+    }
+
+    @Override
+    public void configureBalanceShards(@NotNull UUID accountId, @Min(0) @Max(64) int shards) {
+        if (!accountPersistencePort.configureBalanceShards(accountId, shards)) {
+            throw new AccountNotFoundException("Account not found with ID: " + accountId);
+        }
     }
 
     @Override
     public void deleteAccount(@NotNull UUID accountId) {
         accountPersistencePort.deleteAccount(accountId);
+        accountBalanceCache.invalidate(accountId);
     }
 
     @Override
-    public AccountBalanceUpdateResult updateAccountBalance(UUID accountId, double amount) {
-        throw new UnsupportedOperationException("Unimplemented method 'updateAccountBalance'");
+    public AccountBalanceUpdateResult updateAccountBalance(@NotNull UUID transactionId, @NotNull UUID accountId,
+            @NotNull BigDecimal amount) {
+        if (amount.signum() == 0) {
+            throw new IllegalArgumentException("Amount must not be zero");
+        }
+        FixedPoint.requireExact(amount);
+
+        Optional<AccountBalanceUpdateResult> updated =
+                accountPersistencePort.updateBalance(transactionId, accountId, amount);
+        if (updated.isPresent()) {
+            accountBalanceCache.invalidate(accountId);
+            return updated.get();
+        }
+
+        // The conditional update matched no row, find out why
+        AccountBalance current = accountPersistencePort.findBalance(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found with ID: " + accountId));
+        if (accountPersistencePort.hasLedgerEntry(transactionId, accountId)) {
+            return new AccountBalanceUpdateResult(current.balance(), current.balance(), transactionId.toString(),
+                    accountId.toString(), current.customerId().toString(), current.currency(),
+                    current.status().name(), true);
+        }
+        if (current.status() != Account.AccountStatus.ACTIVE) {
+            throw new AccountBalanceUpdateException("Account is not active: " + accountId);
+        }
+        throw new AccountBalanceUpdateException("Insufficient balance on account: " + accountId);
     }
 
     @Override
     public AccountBalanceVericationResult verifyAccountBalance(UUID accountId, BigDecimal amount) {
-        throw new UnsupportedOperationException("Unimplemented method 'verifyAccountBalance'");
+        long stamp = accountBalanceCache.beginLoad(accountId);
+        Optional<AccountBalance> balance = accountPersistencePort.findBalance(accountId);
+        balance.ifPresent(loaded -> accountBalanceCache.putLoaded(loaded, stamp));
+        return verify(new BalanceVerificationRequest(null, accountId, amount, null), balance.orElse(null));
+    }
+
+    @Override
+    public List<AccountBalanceVericationResult> verifyAccountBalances(
+            @NotNull List<BalanceVerificationRequest> requests) {
+        Map<UUID, AccountBalance> balances = new HashMap<>();
+        Set<UUID> misses = new HashSet<>();
+        for (BalanceVerificationRequest request : requests) {
+            UUID accountId = request.accountId();
+            if (balances.containsKey(accountId) || misses.contains(accountId)) {
+                continue;
+            }
+            accountBalanceCache.get(accountId).ifPresentOrElse(
+                    balance -> balances.put(accountId, balance),
+                    () -> misses.add(accountId));
+        }
+
+        loadBalances(misses, balances);
+
+        List<AccountBalanceVericationResult> results = new ArrayList<>(requests.size());
+        for (BalanceVerificationRequest request : requests) {
+            results.add(verify(request, balances.get(request.accountId())));
+        }
+        return results;
+    }
+
+    /**
+     * Load the balances missing from the cache with one query, and cache them
+     */
+    private void loadBalances(Set<UUID> misses, Map<UUID, AccountBalance> balances) {
+        if (misses.isEmpty()) {
+            return;
+        }
+        Map<UUID, Long> stamps = new HashMap<>();
+        for (UUID accountId : misses) {
+            stamps.put(accountId, accountBalanceCache.beginLoad(accountId));
+        }
+        for (AccountBalance balance : accountPersistencePort.findBalances(misses)) {
+            balances.put(balance.accountId(), balance);
+            accountBalanceCache.putLoaded(balance, stamps.get(balance.accountId()));
+        }
+    }
+
+    static AccountBalanceVericationResult verify(BalanceVerificationRequest request, AccountBalance balance) {
+        String transactionId = request.transactionId() != null ? request.transactionId().toString() : null;
+        long amount = FixedPoint.toLong(request.amount());
+        if (balance == null) {
+            return new AccountBalanceVericationResult(false, "Account not found", transactionId,
+                    request.accountId().toString(), null, amount, null);
+        }
+
+        String message;
+        boolean valid = false;
+        if (balance.status() != Account.AccountStatus.ACTIVE) {
+            message = "Account is not active";
+        } else if (request.currency() != null && !request.currency().equals(balance.currency())) {
+            message = "Currency mismatch";
+        } else if (balance.balance().compareTo(request.amount()) < 0) {
+            message = "Insufficient balance";
+        } else {
+            message = "Sufficient balance";
+            valid = true;
+        }
+        return new AccountBalanceVericationResult(valid, message, transactionId, balance.accountId().toString(),
+                balance.customerId().toString(), amount, balance.currency());
     }
 }
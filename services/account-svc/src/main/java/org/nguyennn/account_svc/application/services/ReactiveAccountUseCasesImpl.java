@@ -0,0 +1,68 @@
+package org.nguyennn.account_svc.application.services;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.application.dto.AccountBalanceVericationResult;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+import org.nguyennn.account_svc.application.in.ReactiveAccountUseCases;
+import org.nguyennn.account_svc.application.out.cache.AccountBalanceCache;
+import org.nguyennn.account_svc.application.out.persistence.ReactiveAccountPersistencePort;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.validation.constraints.NotNull;
+
+@ApplicationScoped
+public class ReactiveAccountUseCasesImpl implements ReactiveAccountUseCases {
+
+    private final ReactiveAccountPersistencePort reactiveAccountPersistencePort;
+    private final AccountBalanceCache accountBalanceCache;
+
+    /**
+     * The port implementation is chosen by {@code account-svc.persistence.mode}, which is only
+     * honoured for programmatic lookup.
+     */
+    @Inject
+    public ReactiveAccountUseCasesImpl(Instance<ReactiveAccountPersistencePort> reactiveAccountPersistencePort,
+            AccountBalanceCache accountBalanceCache) {
+        this.reactiveAccountPersistencePort = reactiveAccountPersistencePort.get();
+        this.accountBalanceCache = accountBalanceCache;
+    }
+
+    @Override
+    public Uni<Optional<Account>> getAccountById(@NotNull UUID accountId) {
+        return reactiveAccountPersistencePort.findById(accountId);
+    }
+
+    @Override
+    public Uni<Optional<Account>> getAccountByNumber(@NotNull String accountNumber) {
+        return reactiveAccountPersistencePort.findByAccountNumber(accountNumber);
+    }
+
+    @Override
+    public Uni<Optional<AccountBalance>> getAccountBalance(@NotNull UUID accountId) {
+        Optional<AccountBalance> cached = accountBalanceCache.get(accountId);
+        if (cached.isPresent()) {
+            return Uni.createFrom().item(cached);
+        }
+        long stamp = accountBalanceCache.beginLoad(accountId);
+        return reactiveAccountPersistencePort.findBalance(accountId)
+                .invoke(balance -> balance.ifPresent(loaded -> accountBalanceCache.putLoaded(loaded, stamp)));
+    }
+
+    @Override
+    public Uni<AccountBalanceVericationResult> verifyAccountBalance(@NotNull UUID accountId,
+            @NotNull BigDecimal amount) {
+        long stamp = accountBalanceCache.beginLoad(accountId);
+        return reactiveAccountPersistencePort.findBalance(accountId)
+                .invoke(balance -> balance.ifPresent(loaded -> accountBalanceCache.putLoaded(loaded, stamp)))
+                .map(balance -> AccountUseCasesImpl.verify(
+                        new BalanceVerificationRequest(null, accountId, amount, null), balance.orElse(null)));
+    }
+}
@@ -0,0 +1,48 @@
+package org.nguyennn.account_svc.common;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point representation of monetary amounts, using the same scale as the DECIMAL(19, 4)
+ * balance and amount columns
+ */
+public final class FixedPoint {
+
+    public static final int SCALE = 4;
+
+    private FixedPoint() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the amount has more than {@link #SCALE} decimals or is
+     *                                  out of range
+     */
+    public static long toLong(BigDecimal amount) {
+        if (amount.scale() > SCALE && amount.stripTrailingZeros().scale() > SCALE) {
+            throw new IllegalArgumentException(
+                    "Amount " + amount.toPlainString() + " has more than " + SCALE + " decimals");
+        }
+        try {
+            return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " is out of range", e);
+        }
+    }
+
+    /**
+     * Check that an amount has an exact fixed-point representation
+     *
+     * @return the amount
+     * @throws IllegalArgumentException if it has more than {@link #SCALE} decimals or is out of
+     *                                  range
+     */
+    public static BigDecimal requireExact(BigDecimal amount) {
+        toLong(amount);
+        return amount;
+    }
+
+    public static BigDecimal toBigDecimal(long amount) {
+        return BigDecimal.valueOf(amount, SCALE);
+    }
+}
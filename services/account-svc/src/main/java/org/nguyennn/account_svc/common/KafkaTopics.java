@@ -2,4 +2,10 @@ package org.nguyennn.account_svc.common;
 
 public class KafkaTopics {
     public static final String TOPIC_TRANSACTION_INITIATED = "transaction-initiated";
+    public static final String TOPIC_ACCOUNT_VALIDATED = "account-validated";
+    public static final String TOPIC_TRANSACTION_INITIATED_RETRY_1S = "transaction-initiated-retry-1s";
+    public static final String TOPIC_TRANSACTION_INITIATED_RETRY_10S = "transaction-initiated-retry-10s";
+    public static final String TOPIC_TRANSACTION_INITIATED_RETRY_60S = "transaction-initiated-retry-60s";
+    /** Outgoing channel for all retry topics; the topic is chosen per record */
+    public static final String CHANNEL_TRANSACTION_INITIATED_RETRY = "transaction-initiated-retry";
 }
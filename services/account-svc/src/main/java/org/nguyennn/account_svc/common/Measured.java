@@ -0,0 +1,27 @@
+package org.nguyennn.account_svc.common;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.enterprise.util.Nonbinding;
+import jakarta.interceptor.InterceptorBinding;
+
+/**
+ * Records the latency and outcome of every call to the annotated bean or method in the
+ * {@code account.operation} timer, see {@link MeasuredInterceptor}
+ */
+@Inherited
+@InterceptorBinding
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Measured {
+
+    /**
+     * @return the component tag, e.g. {@code use-case} or {@code persistence}
+     */
+    @Nonbinding
+    String value();
+}
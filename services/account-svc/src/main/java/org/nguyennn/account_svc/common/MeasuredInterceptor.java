@@ -0,0 +1,84 @@
+package org.nguyennn.account_svc.common;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * Times {@link Measured} calls. Timers are resolved once per method and cached, so a successful
+ * call only reads the clock twice and records into an existing timer. Failures are tagged with
+ * the exception class and are timed like any other call.
+ * <p>
+ * Runs before the transaction interceptor, so the time includes the commit.
+ */
+@Measured("")
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class MeasuredInterceptor {
+
+    private static final String METRIC = "account.operation";
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Map<Method, Timer> successTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Map<Class<?>, Timer>> errorTimers = new ConcurrentHashMap<>();
+    private final Function<Method, Timer> successTimer = method -> timer(method, "success", "none");
+
+    @AroundInvoke
+    Object measure(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = context.proceed();
+        } catch (Exception | Error e) {
+            errorTimer(context.getMethod(), e.getClass()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        Method method = context.getMethod();
+        Timer timer = successTimers.get(method);
+        if (timer == null) {
+            timer = successTimers.computeIfAbsent(method, successTimer);
+        }
+        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    private Timer errorTimer(Method method, Class<?> exceptionClass) {
+        return errorTimers.computeIfAbsent(method, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(exceptionClass, type -> timer(method, "error", exceptionName(type)));
+    }
+
+    /**
+     * The simple name, or the full name for anonymous and hidden classes, whose simple name is empty
+     */
+    static String exceptionName(Class<?> type) {
+        String name = type.getSimpleName();
+        return name.isEmpty() ? type.getName() : name;
+    }
+
+    private Timer timer(Method method, String outcome, String exception) {
+        Measured measured = method.getAnnotation(Measured.class);
+        if (measured == null) {
+            measured = method.getDeclaringClass().getAnnotation(Measured.class);
+        }
+        return Timer.builder(METRIC)
+                .description("Latency of use cases, persistence operations and message handlers")
+                .tag("component", measured != null ? measured.value() : "")
+                .tag("operation", method.getDeclaringClass().getSimpleName() + "." + method.getName())
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
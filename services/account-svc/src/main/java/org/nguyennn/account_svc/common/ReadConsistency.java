@@ -0,0 +1,48 @@
+package org.nguyennn.account_svc.common;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/**
+ * The read consistency the caller of the current request asked for. Strong reads always see the
+ * latest committed data; other reads may be served from a replica that lags slightly behind, but
+ * never from one that has not yet replayed the caller's last write.
+ */
+@RequestScoped
+public class ReadConsistency {
+
+    public static final String HEADER = "X-Consistency";
+
+    /** Epoch milliseconds of the caller's last write, handed back on every later request */
+    public static final String LAST_WRITE_COOKIE = "account-svc-last-write";
+
+    private boolean strong;
+    private long lastWriteMillis;
+    private boolean written;
+
+    public boolean isStrong() {
+        return strong;
+    }
+
+    public void setStrong(boolean strong) {
+        this.strong = strong;
+    }
+
+    public long getLastWriteMillis() {
+        return lastWriteMillis;
+    }
+
+    public void setLastWriteMillis(long lastWriteMillis) {
+        this.lastWriteMillis = lastWriteMillis;
+    }
+
+    /**
+     * @return whether the current request wrote anything
+     */
+    public boolean isWritten() {
+        return written;
+    }
+
+    public void markWritten() {
+        this.written = true;
+    }
+}
@@ -0,0 +1,134 @@
+package org.nguyennn.account_svc.common;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jboss.logging.Logger;
+import org.jboss.logging.MDC;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Logger for one hot call site. Info, debug and warn messages are sampled, 1 in
+ * {@code sampleRate}, and limited to {@code maxPerSecond}; errors are always logged. Dropped
+ * messages are counted in {@code account.log.suppressed}, tagged by site.
+ * <p>
+ * The sampling decision comes first, so a call site only builds and boxes its fields for
+ * messages that are logged:
+ * <pre>
+ * if (log.isSampled(Logger.Level.INFO)) {
+ *     log.log(Logger.Level.INFO, "Received batch", "records", records.size());
+ * }
+ * </pre>
+ * Fields are key/value pairs. They are appended to the message as {@code key=value} and put in
+ * the MDC while the message is logged, so exported log records carry them as attributes.
+ * <p>
+ * Obtain instances from {@link SampledLoggers} and keep them in a field.
+ */
+public final class SampledLogger {
+
+    private final Logger logger;
+    private final int sampleRate;
+    private final int maxPerSecond;
+    private final Counter suppressed;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger emittedInWindow = new AtomicInteger();
+
+    /**
+     * @param sampleRate   log 1 in this many messages, 1 to log all
+     * @param maxPerSecond upper bound of sampled messages per second, 0 for no bound
+     */
+    SampledLogger(Logger logger, String site, int sampleRate, int maxPerSecond, MeterRegistry meterRegistry) {
+        if (sampleRate < 1 || maxPerSecond < 0) {
+            throw new IllegalArgumentException("Invalid sampling for log site " + site);
+        }
+        this.logger = logger;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+        this.suppressed = Counter.builder("account.log.suppressed")
+                .description("Log messages dropped by sampling or rate limiting")
+                .tag("site", site)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decide whether the next message at this level is logged, counting it as suppressed if not.
+     * Call once per message, right before {@link #log}.
+     */
+    public boolean isSampled(Logger.Level level) {
+        if (!logger.isEnabled(level)) {
+            return false;
+        }
+        if ((sampleRate > 1 && (calls.getAndIncrement() % sampleRate) != 0) || !withinRate()) {
+            suppressed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Log a message that passed {@link #isSampled}
+     *
+     * @param keyValues alternating field names and values
+     */
+    public void log(Logger.Level level, String message, Object... keyValues) {
+        emit(level, null, message, keyValues);
+    }
+
+    /**
+     * Log a message with its cause that passed {@link #isSampled}
+     *
+     * @param keyValues alternating field names and values
+     */
+    public void log(Logger.Level level, Throwable t, String message, Object... keyValues) {
+        emit(level, t, message, keyValues);
+    }
+
+    /**
+     * Always logged
+     *
+     * @param keyValues alternating field names and values
+     */
+    public void error(Throwable t, String message, Object... keyValues) {
+        emit(Logger.Level.ERROR, t, message, keyValues);
+    }
+
+    private void emit(Logger.Level level, Throwable t, String message, Object[] keyValues) {
+        if (keyValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Fields must be key/value pairs: " + message);
+        }
+        StringBuilder text = new StringBuilder(message);
+        Object[] previous = new Object[keyValues.length / 2];
+        for (int i = 0; i < keyValues.length; i += 2) {
+            String key = (String) keyValues[i];
+            text.append(' ').append(key).append('=').append(keyValues[i + 1]);
+            previous[i / 2] = MDC.put(key, String.valueOf(keyValues[i + 1]));
+        }
+        try {
+            logger.log(level, text, t);
+        } finally {
+            for (int i = 0; i < keyValues.length; i += 2) {
+                String key = (String) keyValues[i];
+                if (previous[i / 2] == null) {
+                    MDC.remove(key);
+                } else {
+                    MDC.put(key, previous[i / 2]);
+                }
+            }
+        }
+    }
+
+    private boolean withinRate() {
+        if (maxPerSecond == 0) {
+            return true;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        long current = window.get();
+        if (second != current && window.compareAndSet(current, second)) {
+            emittedInWindow.set(0);
+        }
+        return emittedInWindow.incrementAndGet() <= maxPerSecond;
+    }
+}
@@ -0,0 +1,41 @@
+package org.nguyennn.account_svc.common;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Creates {@link SampledLogger}s for hot call sites, with the configured sampling unless a site
+ * asks for its own
+ */
+@ApplicationScoped
+public class SampledLoggers {
+
+    private final MeterRegistry meterRegistry;
+    private final int sampleRate;
+    private final int maxPerSecond;
+
+    @Inject
+    public SampledLoggers(MeterRegistry meterRegistry,
+            @ConfigProperty(name = "account-svc.logging.sample-rate") int sampleRate,
+            @ConfigProperty(name = "account-svc.logging.max-per-second") int maxPerSecond) {
+        this.meterRegistry = meterRegistry;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * @param owner the class logging, used as the log category
+     * @param site  names the call site in the suppressed-messages metric
+     */
+    public SampledLogger get(Class<?> owner, String site) {
+        return get(owner, site, sampleRate, maxPerSecond);
+    }
+
+    public SampledLogger get(Class<?> owner, String site, int sampleRate, int maxPerSecond) {
+        return new SampledLogger(Logger.getLogger(owner), site, sampleRate, maxPerSecond, meterRegistry);
+    }
+}
@@ -89,10 +89,34 @@ public class Account {
         this.status = status;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
     public static Builder builder() {
         return new Builder();
     }
 
+    /**
+     * @return a builder initialized with the fields of this account
+     */
+    public Builder toBuilder() {
+        return new Builder()
+                .id(id)
+                .customerId(customerId)
+                .accountNumber(accountNumber)
+                .type(type)
+                .balance(balance)
+                .currency(currency)
+                .status(status)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt);
+    }
+
     public static class Builder {
         private UUID id;
         private UUID customerId;
@@ -82,13 +82,25 @@ CREATE TABLE accounts
     currency       TEXT             NOT NULL,                                   -- ISO 4217 currency code (e.g., 'USD', 'EUR')
     balance        DECIMAL(19, 4)      NOT NULL DEFAULT 0.00 CHECK (balance >= 0), -- Added non-negative check
     status         account_status_enum NOT NULL,
+    balance_shards SMALLINT            NOT NULL DEFAULT 0 CHECK (balance_shards BETWEEN 0 AND 64), -- > 0 spreads credits over account_balance_shards
     created_at     TIMESTAMPTZ         NOT NULL DEFAULT NOW(),
     updated_at     TIMESTAMPTZ         NOT NULL DEFAULT NOW()
 );
 -- Add length constraints to text fields
 ALTER TABLE accounts
     ADD CONSTRAINT chk_accounts_account_number_length CHECK (char_length(account_number) <= 50),
-    ADD CONSTRAINT chk_accounts_currency_length CHECK (char_length(currency) == 3);
+    ADD CONSTRAINT chk_accounts_currency_length CHECK (char_length(currency) = 3);
+
+-- Part of the balance of a hot account (e.g. a merchant). Credits go to one shard so that they
+-- do not all lock the account row; the account balance is accounts.balance plus its shards.
+-- Shard balances are periodically moved back into accounts.balance.
+CREATE TABLE account_balance_shards
+(
+    account_id UUID           NOT NULL REFERENCES accounts (account_id) ON DELETE CASCADE,
+    shard      SMALLINT       NOT NULL,
+    balance    DECIMAL(19, 4) NOT NULL DEFAULT 0 CHECK (balance >= 0),
+    PRIMARY KEY (account_id, shard)
+);
 
 -- Trigger for accounts table
 CREATE TRIGGER set_account_timestamp
@@ -120,7 +132,7 @@ CREATE TABLE transactions
 -- Add length constraints to text fields
 ALTER TABLE transactions
     ADD CONSTRAINT chk_transactions_description_length CHECK (char_length(description) <= 255),
-    ADD CONSTRAINT chk_transactions_currency_length CHECK (char_length(currency) == 3),
+    ADD CONSTRAINT chk_transactions_currency_length CHECK (char_length(currency) = 3),
     ADD CONSTRAINT chk_transactions_failure_reason_length CHECK (char_length(failure_reason) <= 255),
     ADD CONSTRAINT chk_transactions_idempotency_key_length CHECK (char_length(idempotency_key) <= 255);
 -- Note: No updated_at trigger for transactions as its state changes are typically tracked
@@ -140,9 +152,49 @@ CREATE TABLE ledger_entries
 );
 -- Add length constraints to text fields
 ALTER TABLE ledger_entries
-    ADD CONSTRAINT chk_ledger_entries_currency_length CHECK (char_length(currency) == 3);
+    ADD CONSTRAINT chk_ledger_entries_currency_length CHECK (char_length(currency) = 3);
 -- Note: Ledger entries are typically immutable once created, so no updated_at.
 
+-- Balance of an account as of a point in time, written periodically by the account service.
+-- A balance at time T is the nearest checkpoint plus or minus the ledger entries in between,
+-- so it never needs to sum the whole ledger of an account.
+CREATE TABLE account_balance_checkpoints
+(
+    account_id    UUID           NOT NULL REFERENCES accounts (account_id) ON DELETE CASCADE,
+    checkpoint_at TIMESTAMPTZ    NOT NULL,
+    balance       DECIMAL(19, 4) NOT NULL,
+    PRIMARY KEY (account_id, checkpoint_at)
+);
+
+
+-- Messages written in the same transaction as the change they describe and relayed to Kafka
+-- by the account service. Rows are deleted once published.
+CREATE TABLE account_outbox
+(
+    outbox_id   BIGSERIAL PRIMARY KEY,
+    topic       TEXT        NOT NULL,
+    message_key TEXT,
+    payload     TEXT        NOT NULL,
+    created_at  TIMESTAMPTZ NOT NULL DEFAULT NOW()
+);
+
+-- Wakes the relay when new messages commit; NOTIFY is only delivered on commit
+CREATE
+OR REPLACE FUNCTION notify_account_outbox()
+RETURNS TRIGGER AS $$
+BEGIN
+  PERFORM pg_notify('account_outbox', '');
+RETURN NULL;
+END;
+$$
+LANGUAGE plpgsql;
+
+CREATE TRIGGER account_outbox_notify
+    AFTER INSERT
+    ON account_outbox
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE notify_account_outbox();
+
 
 -- ------------------------------------------
 -- Indexes for Performance
@@ -150,9 +202,11 @@ ALTER TABLE ledger_entries
 -- Basic indexes are crucial for query performance. More specific or composite
 -- indexes might be needed based on actual query patterns in production.
 
-CREATE INDEX idx_accounts_customer_id ON accounts (customer_id);
+-- Serves customer lookups and keyset pagination over (customer_id, account_id):
+CREATE INDEX idx_accounts_customer_account ON accounts (customer_id, account_id);
 CREATE INDEX idx_accounts_account_number ON accounts (account_number);
 CREATE INDEX idx_accounts_status ON accounts (status); -- Index status for filtering
+CREATE INDEX idx_account_outbox_key ON account_outbox (message_key, outbox_id); -- Oldest message per key for the relay claim
 
 CREATE INDEX idx_transactions_source_account_id ON transactions (source_account_id);
 CREATE INDEX idx_transactions_destination_account_id ON transactions (destination_account_id);
@@ -165,6 +219,8 @@ CREATE INDEX idx_ledger_entries_account_id ON ledger_entries (account_id);
 CREATE INDEX idx_ledger_entries_entry_timestamp ON ledger_entries (entry_timestamp);
 -- Often useful for fetching account history:
 CREATE INDEX idx_ledger_entries_account_timestamp ON ledger_entries (account_id, entry_timestamp);
+-- A transaction posts at most one entry per account; makes balance updates idempotent:
+CREATE UNIQUE INDEX ux_ledger_entries_transaction_account ON ledger_entries (transaction_id, account_id);
 
 
 
@@ -262,18 +318,25 @@ GRANT USAGE ON TYPE customer_risk_level_enum TO customer_service_role;
 
 -- Table Permissions
 GRANT SELECT, INSERT, UPDATE, DELETE ON TABLE accounts TO account_service_role;
+GRANT SELECT, INSERT ON TABLE ledger_entries TO account_service_role; -- Ledger entry posted with each balance update
+GRANT SELECT, INSERT, UPDATE, DELETE ON TABLE account_balance_shards TO account_service_role;
+GRANT SELECT, INSERT ON TABLE account_balance_checkpoints TO account_service_role;
+GRANT SELECT, INSERT, DELETE ON TABLE account_outbox TO account_service_role; -- Outbox written with each change, drained by the relay
 GRANT SELECT (customer_id, kyc_status, risk_level) ON TABLE customers TO account_service_role;
 -- Read specific customer details for validation
 
 -- Type Permissions (for ENUMs used in accounts and relevant customer columns)
 GRANT USAGE ON TYPE account_type_enum TO account_service_role;
 GRANT USAGE ON TYPE account_status_enum TO account_service_role;
+GRANT USAGE ON TYPE ledger_entry_type_enum TO account_service_role;
 GRANT USAGE ON TYPE customer_kyc_status_enum TO account_service_role; -- Needed if reading kyc_status from customers
 GRANT USAGE ON TYPE customer_risk_level_enum TO account_service_role;
 -- Needed if reading risk_level from customers
 
 -- Sequence Permissions (Not needed for UUID PKs)
 -- GRANT USAGE, SELECT ON SEQUENCE accounts_account_id_seq TO account_service_role; -- Example if using SERIAL
+GRANT USAGE, SELECT ON SEQUENCE ledger_entries_entry_id_seq TO account_service_role;
+GRANT USAGE, SELECT ON SEQUENCE account_outbox_outbox_id_seq TO account_service_role;
 
 
 -- ------------------------------------------
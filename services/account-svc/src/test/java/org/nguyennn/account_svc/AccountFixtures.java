@@ -0,0 +1,116 @@
+package org.nguyennn.account_svc;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Rows for tests against the Dev Services database, written and read with plain JDBC so they do
+ * not go through the code under test. Every call commits on its own.
+ */
+@ApplicationScoped
+public class AccountFixtures {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    /**
+     * @return the ID of a new active checking account in USD, owned by a new customer
+     */
+    public UUID account(BigDecimal balance) {
+        return account(balance, "CHECKING");
+    }
+
+    public UUID account(BigDecimal balance, String type) {
+        UUID customerId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        update("""
+                INSERT INTO customers (customer_id, email, kyc_status, risk_level)
+                VALUES (?, ?, 'VERIFIED', 'LOW')
+                """, customerId, customerId + "@example.com");
+        update("""
+                INSERT INTO accounts (account_id, customer_id, account_number, account_type, currency, balance, status)
+                VALUES (?, ?, ?, CAST(? AS account_type_enum), 'USD', ?, 'ACTIVE')
+                """, accountId, customerId, "ACC-" + accountId, type, balance);
+        return accountId;
+    }
+
+    /**
+     * Record a transaction the way the transaction service does before it asks for balance
+     * updates; ledger entries reference it
+     *
+     * @return the transaction ID
+     */
+    public UUID transaction(UUID accountId, BigDecimal amount) {
+        UUID transactionId = UUID.randomUUID();
+        update("""
+                INSERT INTO transactions (transaction_id, source_account_id, transaction_type, amount, currency, status)
+                VALUES (?, ?, 'PAYMENT', ?, 'USD', 'PROCESSING')
+                """, transactionId, accountId, amount.abs());
+        return transactionId;
+    }
+
+    /**
+     * @return the balance in the account row, without its shards
+     */
+    public BigDecimal rowBalance(UUID accountId) {
+        return this.<BigDecimal>query("SELECT balance FROM accounts WHERE account_id = ?", accountId).getFirst();
+    }
+
+    public BigDecimal shardBalance(UUID accountId) {
+        return this.<BigDecimal>query(
+                "SELECT COALESCE(SUM(balance), 0) FROM account_balance_shards WHERE account_id = ?", accountId)
+                .getFirst();
+    }
+
+    /**
+     * @return the ledger entries of an account as "TYPE amount", oldest first
+     */
+    public List<String> ledgerEntries(UUID accountId) {
+        return query("""
+                SELECT CAST(entry_type AS text) || ' ' || amount FROM ledger_entries
+                WHERE account_id = ? ORDER BY entry_id
+                """, accountId);
+    }
+
+    public void update(String sql, Object... params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, sql, params)) {
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> List<T> query(String sql, Object... params) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = prepare(connection, sql, params);
+             ResultSet result = statement.executeQuery()) {
+            List<T> values = new ArrayList<>();
+            while (result.next()) {
+                values.add((T) result.getObject(1));
+            }
+            return values;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, Object... params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.length; i++) {
+            statement.setObject(i + 1, params[i]);
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,46 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class AccountCursorTest {
+
+    @Test
+    void roundTripsAccountIds() {
+        UUID accountId = UUID.fromString("0190f1c2-7a3b-7c4d-8e5f-6a7b8c9d0e1f");
+
+        String cursor = AccountCursor.encode(accountId);
+
+        assertEquals(22, cursor.length());
+        assertFalse(cursor.contains("=") || cursor.contains("+") || cursor.contains("/"), cursor);
+        assertEquals(accountId, AccountCursor.decode(cursor));
+    }
+
+    @Test
+    void roundTripsExtremeIds() {
+        UUID max = new UUID(-1L, -1L);
+        UUID min = new UUID(0L, 0L);
+
+        assertEquals(max, AccountCursor.decode(AccountCursor.encode(max)));
+        assertEquals(min, AccountCursor.decode(AccountCursor.encode(min)));
+    }
+
+    @Test
+    void treatsMissingCursorAsFirstPage() {
+        assertNull(AccountCursor.encode(null));
+        assertNull(AccountCursor.decode(null));
+        assertNull(AccountCursor.decode(""));
+    }
+
+    @Test
+    void rejectsInvalidCursors() {
+        assertThrows(IllegalArgumentException.class, () -> AccountCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> AccountCursor.decode("AAAA"));
+    }
+}
@@ -0,0 +1,126 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+import org.nguyennn.account_svc.adapter.out.persistence.AccountRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class AccountResourceTest {
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Test
+    void appliesABalanceUpdate() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("30"));
+
+        updateBalance(accountId, transactionId, "-30")
+                .statusCode(200)
+                .body("data.oldBalance", equalTo(100.0f))
+                .body("data.newBalance", equalTo(70.0f));
+    }
+
+    @Test
+    void rejectsAnOverdraft() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("150"));
+
+        updateBalance(accountId, transactionId, "-150")
+                .statusCode(409)
+                .body("errors.code", equalTo("balance.update.rejected"));
+    }
+
+    @Test
+    void answersAReplayWithTheCurrentBalance() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("30"));
+
+        updateBalance(accountId, transactionId, "-30").statusCode(200);
+        updateBalance(accountId, transactionId, "-30")
+                .statusCode(200)
+                .body("data.oldBalance", equalTo(70.0f))
+                .body("data.newBalance", equalTo(70.0f));
+    }
+
+    @Test
+    void rejectsAmountsWithMoreThanFourDecimals() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("1"));
+
+        updateBalance(accountId, transactionId, "-0.00001").statusCode(400);
+    }
+
+    @Test
+    void answersNotModifiedForTheCurrentTag() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+
+        for (String path : new String[] { "/api/v1/accounts/{accountId}", "/api/v1/accounts/{accountId}/balance" }) {
+            String tag = given().get(path, accountId).then().statusCode(200).extract().header("ETag");
+            assertNotNull(tag);
+
+            given().header("If-None-Match", tag).get(path, accountId).then().statusCode(304);
+        }
+    }
+
+    @Test
+    void changesTheTagAfterABalanceUpdate() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        String accountTag = given().get("/api/v1/accounts/{accountId}", accountId).then().extract().header("ETag");
+        String balanceTag = given().get("/api/v1/accounts/{accountId}/balance", accountId).then().extract()
+                .header("ETag");
+
+        updateBalance(accountId, fixtures.transaction(accountId, BigDecimal.TEN), "-10").statusCode(200);
+
+        assertTagChanged("/api/v1/accounts/{accountId}", accountId, accountTag);
+        assertTagChanged("/api/v1/accounts/{accountId}/balance", accountId, balanceTag);
+    }
+
+    @Test
+    void changesTheTagAfterAShardCredit() {
+        UUID accountId = fixtures.account(new BigDecimal("100"), "MERCHANT");
+        QuarkusTransaction.requiringNew().run(() -> accountRepository.configureShards(accountId, 4));
+        String accountTag = given().get("/api/v1/accounts/{accountId}", accountId).then().extract().header("ETag");
+        String balanceTag = given().get("/api/v1/accounts/{accountId}/balance", accountId).then().extract()
+                .header("ETag");
+
+        // Lands in a shard and leaves the account row, and its updated_at, as they were
+        updateBalance(accountId, fixtures.transaction(accountId, BigDecimal.TEN), "10").statusCode(200);
+
+        assertTagChanged("/api/v1/accounts/{accountId}", accountId, accountTag);
+        assertTagChanged("/api/v1/accounts/{accountId}/balance", accountId, balanceTag);
+    }
+
+    private static void assertTagChanged(String path, UUID accountId, String oldTag) {
+        String newTag = given().header("If-None-Match", oldTag).get(path, accountId)
+                .then().statusCode(200).extract().header("ETag");
+        assertNotEquals(oldTag, newTag);
+    }
+
+    private static ValidatableResponse updateBalance(UUID accountId, UUID transactionId, String amount) {
+        return given()
+                .contentType(ContentType.JSON)
+                .body(Map.of("transactionId", transactionId, "amount", new BigDecimal(amount)))
+                .when()
+                .post("/api/v1/accounts/{accountId}/balance/updates", accountId)
+                .then();
+    }
+}
@@ -0,0 +1,108 @@
+package org.nguyennn.account_svc.adapter.in.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.common.ReadConsistency;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+
+class ReadConsistencyFilterTest {
+
+    private final ReadConsistencyFilter filter = new ReadConsistencyFilter();
+    private final Map<String, String> headers = new HashMap<>();
+    private final Map<String, Cookie> cookies = new HashMap<>();
+    private final MultivaluedMap<String, Object> responseHeaders = new MultivaluedHashMap<>();
+
+    ReadConsistencyFilterTest() {
+        filter.readConsistency = new ReadConsistency();
+        filter.maxLag = Duration.ofSeconds(2);
+        filter.lagCheckEvery = Duration.ofSeconds(1);
+    }
+
+    @Test
+    void readsStrongConsistencyFromTheHeader() {
+        headers.put(ReadConsistency.HEADER, "Strong");
+
+        filter.readConsistency(request());
+
+        assertTrue(filter.readConsistency.isStrong());
+    }
+
+    @Test
+    void readsTheLastWriteFromTheCookie() {
+        cookies.put(ReadConsistency.LAST_WRITE_COOKIE, cookie("1700000000000"));
+
+        filter.readConsistency(request());
+
+        assertFalse(filter.readConsistency.isStrong());
+        assertEquals(1700000000000L, filter.readConsistency.getLastWriteMillis());
+    }
+
+    @Test
+    void ignoresACookieThatIsNotATime() {
+        cookies.put(ReadConsistency.LAST_WRITE_COOKIE, cookie("yesterday"));
+
+        filter.readConsistency(request());
+
+        assertEquals(0, filter.readConsistency.getLastWriteMillis());
+    }
+
+    @Test
+    void setsNoCookieWhenTheRequestDidNotWrite() {
+        filter.lastWrite(response());
+
+        assertNull(responseHeaders.get(HttpHeaders.SET_COOKIE));
+    }
+
+    @Test
+    void handsTheLastWriteBackUntilTheReplicaMustHaveCaughtUp() {
+        filter.readConsistency.markWritten();
+        long before = System.currentTimeMillis();
+
+        filter.lastWrite(response());
+
+        NewCookie cookie = (NewCookie) responseHeaders.getFirst(HttpHeaders.SET_COOKIE);
+        assertEquals(ReadConsistency.LAST_WRITE_COOKIE, cookie.getName());
+        assertTrue(Long.parseLong(cookie.getValue()) >= before);
+        assertEquals(4, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+    }
+
+    private static Cookie cookie(String value) {
+        return new Cookie.Builder(ReadConsistency.LAST_WRITE_COOKIE).value(value).build();
+    }
+
+    private ContainerRequestContext request() {
+        return (ContainerRequestContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ContainerRequestContext.class }, (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeaderString" -> headers.get((String) args[0]);
+                    case "getCookies" -> cookies;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private ContainerResponseContext response() {
+        return (ContainerResponseContext) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { ContainerResponseContext.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getHeaders")) {
+                        return responseHeaders;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,148 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.AgroalDataSourceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofSeconds(1).toNanos();
+
+    private final PoolMetrics pool = new PoolMetrics();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void growsByOneOnceTheLimitIsReached() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 8, 2, Duration.ZERO);
+
+        limiter.acquire();
+        limiter.release(FAST);
+        assertEquals(2, limiter.limit());
+
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(FAST);
+        limiter.release(FAST);
+        assertEquals(3, limiter.limit());
+        assertEquals(3, meterRegistry.get("account.kafka.concurrency.limit").gauge().value());
+    }
+
+    @Test
+    void backsOffOnSlowTasks() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 16, 8, Duration.ZERO);
+
+        limiter.acquire();
+        limiter.release(SLOW);
+
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    void backsOffWhileThreadsWaitForConnections() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 16, 8, Duration.ZERO);
+        pool.awaiting = 1;
+
+        limiter.acquire();
+        limiter.release(FAST);
+
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    void backsOffWhenTheAveragePoolWaitIsAboveTarget() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 16, 8, Duration.ZERO);
+        pool.acquired = 10;
+        pool.blocked = Duration.ofMillis(100);
+
+        limiter.acquire();
+        limiter.release(FAST);
+
+        assertEquals(6, limiter.limit());
+    }
+
+    @Test
+    void backsOffOncePerInterval() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 16, 8, Duration.ofHours(1));
+
+        limiter.acquire();
+        limiter.release(SLOW);
+
+        assertEquals(8, limiter.limit());
+    }
+
+    @Test
+    void staysWithinMinAndMax() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 3, 2, Duration.ZERO);
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.acquire();
+            limiter.release(FAST);
+            limiter.release(FAST);
+        }
+        assertEquals(3, limiter.limit());
+
+        for (int i = 0; i < 5; i++) {
+            limiter.acquire();
+            limiter.release(SLOW);
+        }
+        assertEquals(2, limiter.limit());
+    }
+
+    @Test
+    void capsTheLimitAtTheLaneCount() {
+        AgroalDataSource dataSource = (AgroalDataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { AgroalDataSource.class }, (proxy, method, args) -> {
+                    if (method.getName().equals("getMetrics")) {
+                        return pool;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(dataSource, meterRegistry, 4, 1, 16, 16,
+                Duration.ofMillis(250), Duration.ofMillis(5), 0.75, Duration.ZERO);
+
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> limiter(0, 4, 1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> limiter(4, 2, 2, Duration.ZERO));
+    }
+
+    private AdaptiveConcurrencyLimiter limiter(int min, int max, int initial, Duration adjustInterval) {
+        return new AdaptiveConcurrencyLimiter(() -> pool, meterRegistry, min, max, initial, Duration.ofMillis(250),
+                Duration.ofMillis(5), 0.75, adjustInterval);
+    }
+
+    private static class PoolMetrics implements AgroalDataSourceMetrics {
+
+        long awaiting;
+        long acquired;
+        Duration blocked = Duration.ZERO;
+
+        @Override
+        public long awaitingCount() {
+            return awaiting;
+        }
+
+        @Override
+        public long acquireCount() {
+            return acquired;
+        }
+
+        @Override
+        public Duration blockingTimeTotal() {
+            return blocked;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.agroal.api.AgroalDataSourceMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class KeyOrderedExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // One task at a time, never adjusted
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+            () -> new AgroalDataSourceMetrics() {
+            }, meterRegistry, 1, 1, 1, Duration.ofHours(1), Duration.ofHours(1), 0.5, Duration.ZERO);
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor(meterRegistry, limiter, 4, 100);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void runsTasksOfALaneInSubmissionOrder() throws Exception {
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> done = new ArrayList<>();
+        int lane = executor.laneOf("account");
+        for (int i = 0; i < 50; i++) {
+            int task = i;
+            done.add(executor.execute(lane, 1, () -> order.add(task), () -> {
+            }));
+        }
+        CompletableFuture.allOf(done.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, order.get(i));
+        }
+    }
+
+    @Test
+    void settlesATaskInterruptedWhileWaitingForTheLimit() throws Exception {
+        AtomicReference<Thread> laneThread = new AtomicReference<>();
+        executor.execute(0, 1, () -> laneThread.set(Thread.currentThread()), () -> {
+        }).get(10, TimeUnit.SECONDS);
+
+        limiter.acquire();
+        AtomicBoolean ran = new AtomicBoolean();
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean interruptCleared = new AtomicBoolean();
+        CompletableFuture<Void> done = executor.execute(0, 1, () -> ran.set(true), () -> {
+            interruptCleared.set(!Thread.currentThread().isInterrupted());
+            interrupted.countDown();
+        });
+        waitUntilWaiting(laneThread.get());
+        laneThread.get().interrupt();
+
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        done.get(10, TimeUnit.SECONDS);
+        assertFalse(ran.get());
+        assertTrue(interruptCleared.get());
+        assertEquals(0, executor.inFlight());
+        limiter.release(0);
+    }
+
+    private static void waitUntilWaiting(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.eclipse.microprofile.reactive.messaging.Emitter;
+import org.eclipse.microprofile.reactive.messaging.Message;
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.smallrye.reactive.messaging.kafka.KafkaRecord;
+import io.smallrye.reactive.messaging.kafka.api.OutgoingKafkaRecordMetadata;
+
+class RetryRouterTest {
+
+    private static final BalanceVerificationRequest REQUEST = new BalanceVerificationRequest(UUID.randomUUID(),
+            UUID.randomUUID(), BigDecimal.TEN, "USD");
+    private static final String KEY = REQUEST.accountId().toString();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RetryEmitter emitter = new RetryEmitter();
+    private final RetryRouter router = new RetryRouter(emitter, meterRegistry, Duration.ofSeconds(1));
+
+    @Test
+    void walksATransientFailureThroughEveryTierToTheDeadLetterQueue() {
+        // Fails on the main topic, then on every retry topic
+        Optional<RetryTier> next = Optional.of(RetryTier.FIRST);
+        List<Record> records = new ArrayList<>();
+        while (true) {
+            Record record = new Record();
+            records.add(record);
+            router.onFailure(record.kafkaRecord(), next, deadlock());
+            if (next.isEmpty()) {
+                break;
+            }
+            next = next.get().next();
+        }
+
+        assertEquals(List.of("transaction-initiated-retry-1s", "transaction-initiated-retry-10s",
+                "transaction-initiated-retry-60s"), emitter.topics());
+        for (Record retried : records.subList(0, 3)) {
+            assertTrue(retried.acked);
+            assertNull(retried.nacked);
+        }
+        Record exhausted = records.getLast();
+        assertFalse(exhausted.acked);
+        assertInstanceOf(SQLException.class, exhausted.nacked);
+        for (String tier : List.of("1s", "10s", "60s")) {
+            assertEquals(1, meterRegistry.get("account.kafka.retries").tag("tier", tier).counter().count());
+        }
+        assertEquals(1, deadLetters("exhausted"));
+    }
+
+    @Test
+    void keepsTheKeyAndPayloadOnTheRetryTopic() {
+        router.onFailure(new Record().kafkaRecord(), Optional.of(RetryTier.SECOND), deadlock());
+
+        Message<BalanceVerificationRequest> sent = emitter.sent.getFirst();
+        OutgoingKafkaRecordMetadata<?> metadata = sent.getMetadata(OutgoingKafkaRecordMetadata.class).orElseThrow();
+        assertEquals("transaction-initiated-retry-10s", metadata.getTopic());
+        assertEquals(KEY, metadata.getKey());
+        assertSame(REQUEST, sent.getPayload());
+    }
+
+    @Test
+    void deadLettersANonRetryableFailureWithoutRetrying() {
+        Record record = new Record();
+        IllegalArgumentException failure = new IllegalArgumentException("Unknown currency");
+
+        router.onFailure(record.kafkaRecord(), Optional.of(RetryTier.FIRST), failure);
+
+        assertEquals(List.of(), emitter.sent);
+        assertSame(failure, record.nacked);
+        assertEquals(1, deadLetters("non-retryable"));
+    }
+
+    @Test
+    void deadLettersARecordTheRetryTopicDidNotAccept() {
+        emitter.reject = true;
+        Record record = new Record();
+        SQLException failure = deadlock();
+
+        router.onFailure(record.kafkaRecord(), Optional.of(RetryTier.FIRST), failure);
+
+        assertFalse(record.acked);
+        assertSame(failure, record.nacked);
+        assertInstanceOf(IllegalStateException.class, failure.getSuppressed()[0]);
+        assertEquals(1, deadLetters("retry-send-failed"));
+        assertEquals(0, meterRegistry.get("account.kafka.retries").tag("tier", "1s").counter().count());
+    }
+
+    @Test
+    void sendsARecordThatWasNeverProcessedToTheFirstTier() {
+        Record record = new Record();
+
+        router.onNotProcessed(record.kafkaRecord(), new IllegalStateException("Lane interrupted before processing"));
+
+        assertEquals(List.of("transaction-initiated-retry-1s"), emitter.topics());
+        assertTrue(record.acked);
+    }
+
+    @Test
+    void deadLettersAMalformedRecord() {
+        Record record = new Record();
+
+        router.onMalformed(record.kafkaRecord());
+
+        assertInstanceOf(IllegalArgumentException.class, record.nacked);
+        assertEquals(1, deadLetters("malformed"));
+    }
+
+    @Test
+    void retriesTransientDatabaseFailuresOnly() {
+        assertTrue(RetryRouter.isRetryable(deadlock()));
+        assertTrue(RetryRouter.isRetryable(new RuntimeException(new SQLException("Connection refused", "08001"))));
+        assertFalse(RetryRouter.isRetryable(new SQLException("Duplicate key", "23505")));
+        assertFalse(RetryRouter.isRetryable(new IllegalArgumentException()));
+    }
+
+    private double deadLetters(String reason) {
+        return meterRegistry.get("account.kafka.dead.letters").tag("reason", reason).counter().count();
+    }
+
+    private static SQLException deadlock() {
+        return new SQLException("Deadlock detected", "40P01");
+    }
+
+    /**
+     * A consumed record that remembers how it was settled
+     */
+    private static class Record {
+
+        boolean acked;
+        Throwable nacked;
+
+        @SuppressWarnings("unchecked")
+        KafkaRecord<String, BalanceVerificationRequest> kafkaRecord() {
+            return (KafkaRecord<String, BalanceVerificationRequest>) Proxy.newProxyInstance(
+                    RetryRouterTest.class.getClassLoader(), new Class<?>[] { KafkaRecord.class },
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getKey" -> KEY;
+                        case "getPayload" -> REQUEST;
+                        case "ack" -> {
+                            acked = true;
+                            yield CompletableFuture.completedFuture(null);
+                        }
+                        case "nack" -> {
+                            nacked = (Throwable) args[0];
+                            yield CompletableFuture.completedFuture(null);
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    /**
+     * Acknowledges every message straight away, or rejects them all
+     */
+    private static class RetryEmitter implements Emitter<BalanceVerificationRequest> {
+
+        final List<Message<BalanceVerificationRequest>> sent = new ArrayList<>();
+        boolean reject;
+
+        List<String> topics() {
+            return sent.stream()
+                    .map(message -> message.getMetadata(OutgoingKafkaRecordMetadata.class).orElseThrow().getTopic())
+                    .toList();
+        }
+
+        @Override
+        public <M extends Message<? extends BalanceVerificationRequest>> void send(M message) {
+            if (reject) {
+                message.nack(new IllegalStateException("Not enough replicas"));
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Message<BalanceVerificationRequest> accepted = (Message<BalanceVerificationRequest>) message;
+            sent.add(accepted);
+            message.ack();
+        }
+
+        @Override
+        public CompletionStage<Void> send(BalanceVerificationRequest payload) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void complete() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void error(Exception e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean hasRequests() {
+            return true;
+        }
+    }
+}
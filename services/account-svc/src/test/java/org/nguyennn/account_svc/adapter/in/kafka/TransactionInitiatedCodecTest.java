@@ -0,0 +1,96 @@
+package org.nguyennn.account_svc.adapter.in.kafka;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.application.dto.BalanceVerificationRequest;
+
+class TransactionInitiatedCodecTest {
+
+    private static final UUID ACCOUNT_ID = UUID.fromString("0190f1c2-7a3b-7c4d-8e5f-6a7b8c9d0e1f");
+    private static final UUID TRANSACTION_ID = UUID.fromString("f1e2d3c4-b5a6-4978-8695-a4b3c2d1e0f9");
+
+    @Test
+    void roundTripsBinaryFormat() {
+        BalanceVerificationRequest request = new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID,
+                new BigDecimal("1234.5678"), "EUR");
+
+        byte[] data = TransactionInitiatedCodec.encode(request);
+
+        assertEquals(TransactionInitiatedCodec.VERSION_1_LENGTH, data.length);
+        assertEquals(TransactionInitiatedCodec.VERSION_1, data[0]);
+        assertEquals(request, TransactionInitiatedCodec.decode(data));
+    }
+
+    @Test
+    void binaryFormatKeepsNegativeAmounts() {
+        BalanceVerificationRequest request = new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID,
+                new BigDecimal("-0.0001"), "USD");
+
+        assertEquals(request, TransactionInitiatedCodec.decode(TransactionInitiatedCodec.encode(request)));
+    }
+
+    @Test
+    void encodesLegacyCsvWithoutCurrency() {
+        BalanceVerificationRequest request = new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID,
+                new BigDecimal("10.50"), null);
+
+        byte[] data = TransactionInitiatedCodec.encode(request);
+
+        assertEquals(ACCOUNT_ID + ",10.50," + TRANSACTION_ID, new String(data, StandardCharsets.US_ASCII));
+        assertEquals(request, TransactionInitiatedCodec.decode(data));
+    }
+
+    @Test
+    void decodesLegacyCsvWithoutTransactionId() {
+        BalanceVerificationRequest request = TransactionInitiatedCodec.decode(
+                (ACCOUNT_ID + ",25").getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(ACCOUNT_ID, request.accountId());
+        assertEquals(new BigDecimal("25"), request.amount());
+        assertNull(request.transactionId());
+        assertNull(request.currency());
+    }
+
+    @Test
+    void rejectsCsvAmountsWithMoreThanFourDecimals() {
+        byte[] data = (ACCOUNT_ID + ",1.00001," + TRANSACTION_ID).getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.decode(data));
+    }
+
+    @Test
+    void rejectsEncodingAmountsWithMoreThanFourDecimals() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.encode(
+                new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID, new BigDecimal("1.00001"), "EUR")));
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.encode(
+                new BalanceVerificationRequest(null, ACCOUNT_ID, new BigDecimal("1.00001"), null)));
+    }
+
+    @Test
+    void rejectsMalformedMessages() {
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.decode(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> TransactionInitiatedCodec.decode("no-separator".getBytes(StandardCharsets.US_ASCII)));
+        assertThrows(IllegalArgumentException.class,
+                () -> TransactionInitiatedCodec.decode(new byte[] {TransactionInitiatedCodec.VERSION_1, 0, 0}));
+    }
+
+    @Test
+    void rejectsInvalidCurrencyCodes() {
+        byte[] data = TransactionInitiatedCodec.encode(new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID,
+                BigDecimal.ONE, "EUR"));
+        data[26] = 'u';
+
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.decode(data));
+        assertThrows(IllegalArgumentException.class, () -> TransactionInitiatedCodec.encode(
+                new BalanceVerificationRequest(TRANSACTION_ID, ACCOUNT_ID, BigDecimal.ONE, "EURO")));
+    }
+}
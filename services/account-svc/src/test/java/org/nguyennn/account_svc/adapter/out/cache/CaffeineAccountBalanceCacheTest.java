@@ -0,0 +1,178 @@
+package org.nguyennn.account_svc.adapter.out.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.application.dto.AccountBalance;
+import org.nguyennn.account_svc.domain.Account;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+class CaffeineAccountBalanceCacheTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+    private static final UUID CUSTOMER_ID = UUID.randomUUID();
+
+    private final FakeTransactions transactions = new FakeTransactions();
+    private final CaffeineAccountBalanceCache cache = new CaffeineAccountBalanceCache(new SimpleMeterRegistry(),
+            transactions, 1000, Duration.ofMinutes(1));
+
+    @Test
+    void cachesALoadedBalance() {
+        long stamp = cache.beginLoad(ACCOUNT_ID);
+        cache.putLoaded(balance(100), stamp);
+
+        assertEquals(Optional.of(balance(100)), cache.get(ACCOUNT_ID));
+    }
+
+    @Test
+    void dropsABalanceReadBeforeAWriteCommitted() {
+        long stamp = cache.beginLoad(ACCOUNT_ID);
+        // The write commits and invalidates while the read is still on its way back
+        cache.invalidate(ACCOUNT_ID);
+        cache.putLoaded(balance(100), stamp);
+
+        assertEquals(Optional.empty(), cache.get(ACCOUNT_ID));
+        long next = cache.beginLoad(ACCOUNT_ID);
+        cache.putLoaded(balance(60), next);
+        assertEquals(Optional.of(balance(60)), cache.get(ACCOUNT_ID));
+    }
+
+    @Test
+    void dropsABalanceLoadedWhileAWriteWasInFlight() {
+        transactions.status = Status.STATUS_ACTIVE;
+        cache.invalidate(ACCOUNT_ID);
+        transactions.status = Status.STATUS_NO_TRANSACTION;
+
+        // Loaded from the last committed state, before the write commits
+        long stamp = cache.beginLoad(ACCOUNT_ID);
+        cache.putLoaded(balance(100), stamp);
+        assertEquals(Optional.of(balance(100)), cache.get(ACCOUNT_ID));
+
+        transactions.complete(Status.STATUS_COMMITTED);
+        assertEquals(Optional.empty(), cache.get(ACCOUNT_ID));
+    }
+
+    @Test
+    void keepsOtherAccountsCached() {
+        UUID other = UUID.randomUUID();
+        long stamp = cache.beginLoad(other);
+        cache.putLoaded(new AccountBalance(other, CUSTOMER_ID, BigDecimal.ONE, "USD", Account.AccountStatus.ACTIVE),
+                stamp);
+
+        cache.invalidate(ACCOUNT_ID);
+
+        assertTrue(cache.get(other).isPresent());
+    }
+
+    @Test
+    void neverKeepsAStaleBalanceUnderConcurrentReadsAndWrites() throws Exception {
+        AtomicLong committed = new AtomicLong();
+        AtomicBoolean writing = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        if (cache.get(ACCOUNT_ID).isEmpty()) {
+                            long stamp = cache.beginLoad(ACCOUNT_ID);
+                            long read = committed.get();
+                            Thread.onSpinWait();
+                            cache.putLoaded(balance(read), stamp);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                start.await();
+                for (int i = 1; i <= 20_000; i++) {
+                    committed.set(i);
+                    cache.invalidate(ACCOUNT_ID);
+                }
+                writing.set(false);
+                return null;
+            });
+            start.countDown();
+            writer.get();
+            for (Future<?> reader : readers) {
+                reader.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        cache.get(ACCOUNT_ID).ifPresent(cached -> assertEquals(balance(committed.get()), cached));
+    }
+
+    private static AccountBalance balance(long amount) {
+        return new AccountBalance(ACCOUNT_ID, CUSTOMER_ID, BigDecimal.valueOf(amount), "USD",
+                Account.AccountStatus.ACTIVE);
+    }
+
+    private static class FakeTransactions implements TransactionSynchronizationRegistry {
+
+        int status = Status.STATUS_NO_TRANSACTION;
+        final List<Synchronization> synchronizations = new ArrayList<>();
+
+        void complete(int completion) {
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(completion));
+            synchronizations.clear();
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return status;
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization synchronization) {
+            synchronizations.add(synchronization);
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
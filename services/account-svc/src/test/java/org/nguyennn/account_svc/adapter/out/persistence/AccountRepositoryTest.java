@@ -0,0 +1,130 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class AccountRepositoryTest {
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Test
+    void debitsAndRecordsTheLedgerEntry() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("30"));
+
+        AccountBalanceUpdateResult result = apply(transactionId, accountId, new BigDecimal("-30")).orElseThrow();
+
+        assertEquals(new BigDecimal("100.0000"), result.oldBalance());
+        assertEquals(new BigDecimal("70.0000"), result.newBalance());
+        assertEquals(accountId.toString(), result.accountId());
+        assertEquals("USD", result.currencyCode());
+        assertEquals("ACTIVE", result.status());
+        assertTrue(result.exact());
+        assertEquals(new BigDecimal("70.0000"), fixtures.rowBalance(accountId));
+        assertEquals(List.of("DEBIT 30.0000"), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void creditsAndRecordsTheLedgerEntry() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("25.5"));
+
+        AccountBalanceUpdateResult result = apply(transactionId, accountId, new BigDecimal("25.5")).orElseThrow();
+
+        assertEquals(new BigDecimal("125.5000"), result.newBalance());
+        assertEquals(List.of("CREDIT 25.5000"), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void rejectsAnOverdraftWithoutALedgerEntry() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("150"));
+
+        assertEquals(Optional.empty(), apply(transactionId, accountId, new BigDecimal("-150")));
+
+        assertEquals(new BigDecimal("100.0000"), fixtures.rowBalance(accountId));
+        assertEquals(List.of(), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void allowsADebitOfTheWholeBalance() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("100"));
+
+        assertEquals(new BigDecimal("0.0000"),
+                apply(transactionId, accountId, new BigDecimal("-100")).orElseThrow().newBalance());
+    }
+
+    @Test
+    void skipsAReplayedTransaction() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("30"));
+
+        assertTrue(apply(transactionId, accountId, new BigDecimal("-30")).isPresent());
+        assertEquals(Optional.empty(), apply(transactionId, accountId, new BigDecimal("-30")));
+
+        assertEquals(new BigDecimal("70.0000"), fixtures.rowBalance(accountId));
+        assertEquals(List.of("DEBIT 30.0000"), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void rejectsUpdatesToInactiveAccounts() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        fixtures.update("UPDATE accounts SET status = 'FROZEN' WHERE account_id = ?", accountId);
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("10"));
+
+        assertEquals(Optional.empty(), apply(transactionId, accountId, new BigDecimal("-10")));
+        assertEquals(List.of(), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void concurrentDebitsNeverOverdraw() throws Exception {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        List<UUID> transactionIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            transactionIds.add(fixtures.transaction(accountId, new BigDecimal("20")));
+        }
+
+        int applied = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Optional<AccountBalanceUpdateResult>>> results = new ArrayList<>();
+            for (UUID transactionId : transactionIds) {
+                results.add(executor.submit(() -> apply(transactionId, accountId, new BigDecimal("-20"))));
+            }
+            for (Future<Optional<AccountBalanceUpdateResult>> result : results) {
+                applied += result.get().isPresent() ? 1 : 0;
+            }
+        }
+
+        assertEquals(5, applied);
+        assertEquals(new BigDecimal("0.0000"), fixtures.rowBalance(accountId));
+        assertEquals(5, fixtures.ledgerEntries(accountId).size());
+    }
+
+    private Optional<AccountBalanceUpdateResult> apply(UUID transactionId, UUID accountId, BigDecimal delta) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> accountRepository.applyBalanceUpdate(transactionId, accountId, delta));
+    }
+}
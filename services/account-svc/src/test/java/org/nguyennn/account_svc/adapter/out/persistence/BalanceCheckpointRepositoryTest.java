@@ -0,0 +1,116 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+import org.nguyennn.account_svc.application.dto.HistoricalBalance;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Each account is opened four hours ago with 100, gets a credit of 50 three hours ago, a
+ * checkpoint two hours ago and a debit of 30 one hour ago.
+ */
+@QuarkusTest
+class BalanceCheckpointRepositoryTest {
+
+    private final OffsetDateTime now = OffsetDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Inject
+    BalanceCheckpointRepository checkpointRepository;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Test
+    void replaysBackwardFromTheFirstCheckpointForEarlierTimes() {
+        UUID accountId = account("CHECKING");
+
+        assertEquals(new BigDecimal("100.0000"), balanceAt(accountId, hoursAgo(3.5)));
+    }
+
+    @Test
+    void returnsTheCheckpointAtItsOwnTime() {
+        UUID accountId = account("CHECKING");
+
+        assertEquals(new BigDecimal("150.0000"), balanceAt(accountId, hoursAgo(2)));
+    }
+
+    @Test
+    void replaysFromTheNearestAnchor() {
+        UUID accountId = account("CHECKING");
+
+        // Nearest the checkpoint, before and after it
+        assertEquals(new BigDecimal("150.0000"), balanceAt(accountId, hoursAgo(2.5)));
+        assertEquals(new BigDecimal("150.0000"), balanceAt(accountId, hoursAgo(1.5)));
+        // Nearest the current balance
+        assertEquals(new BigDecimal("120.0000"), balanceAt(accountId, hoursAgo(0.5)));
+    }
+
+    @Test
+    void returnsNothingForAnUnknownAccount() {
+        assertEquals(Optional.empty(), QuarkusTransaction.requiringNew()
+                .call(() -> checkpointRepository.findBalanceAt(UUID.randomUUID(), now)));
+    }
+
+    @Test
+    void countsCreditsHeldInBalanceShards() {
+        UUID accountId = account("MERCHANT");
+
+        // The credit of 50 sits in a shard, not in the account row
+        assertEquals(new BigDecimal("50.0000"), fixtures.shardBalance(accountId));
+        assertEquals(new BigDecimal("100.0000"), balanceAt(accountId, hoursAgo(3.5)));
+        assertEquals(new BigDecimal("150.0000"), balanceAt(accountId, hoursAgo(2)));
+        assertEquals(new BigDecimal("120.0000"), balanceAt(accountId, now));
+
+        QuarkusTransaction.requiringNew().run(() -> accountRepository.consolidateShards(accountId));
+        assertEquals(new BigDecimal("120.0000"), balanceAt(accountId, now));
+        assertEquals(new BigDecimal("100.0000"), balanceAt(accountId, hoursAgo(3.5)));
+    }
+
+    private UUID account(String type) {
+        UUID accountId = fixtures.account(new BigDecimal("100"), type);
+        fixtures.update("UPDATE accounts SET created_at = ? WHERE account_id = ?", hoursAgo(4), accountId);
+        if (type.equals("MERCHANT")) {
+            QuarkusTransaction.requiringNew().run(() -> accountRepository.configureShards(accountId, 4));
+        }
+        post(accountId, new BigDecimal("50"), hoursAgo(3));
+        post(accountId, new BigDecimal("-30"), hoursAgo(1));
+        // Written after the fact, as the checkpoint job does once entries have settled
+        assertEquals(1, QuarkusTransaction.requiringNew()
+                .call(() -> checkpointRepository.checkpoint(List.of(accountId), hoursAgo(2))));
+        return accountId;
+    }
+
+    private void post(UUID accountId, BigDecimal delta, OffsetDateTime at) {
+        UUID transactionId = fixtures.transaction(accountId, delta);
+        QuarkusTransaction.requiringNew()
+                .call(() -> accountRepository.applyBalanceUpdate(transactionId, accountId, delta))
+                .orElseThrow();
+        fixtures.update("UPDATE ledger_entries SET entry_timestamp = ? WHERE transaction_id = ?", at, transactionId);
+    }
+
+    private BigDecimal balanceAt(UUID accountId, OffsetDateTime asOf) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> checkpointRepository.findBalanceAt(accountId, asOf))
+                .map(HistoricalBalance::balance)
+                .orElseThrow();
+    }
+
+    private OffsetDateTime hoursAgo(double hours) {
+        return now.minusMinutes((long) (hours * 60));
+    }
+}
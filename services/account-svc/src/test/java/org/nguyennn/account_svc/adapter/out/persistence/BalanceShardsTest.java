@@ -0,0 +1,114 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class BalanceShardsTest {
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    BalanceShardConsolidator consolidator;
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Test
+    void creditsLandInTheShards() {
+        UUID accountId = shardedAccount(new BigDecimal("100"));
+
+        AccountBalanceUpdateResult result = apply(accountId, new BigDecimal("50")).orElseThrow();
+
+        assertEquals(new BigDecimal("150.0000"), result.newBalance());
+        assertFalse(result.exact());
+        assertEquals(new BigDecimal("100.0000"), fixtures.rowBalance(accountId));
+        assertEquals(new BigDecimal("50.0000"), fixtures.shardBalance(accountId));
+        assertEquals(new BigDecimal("150.0000"), balance(accountId));
+    }
+
+    @Test
+    void debitAfterShardCreditsSeesTheConsolidatedBalance() {
+        UUID accountId = shardedAccount(new BigDecimal("10"));
+        apply(accountId, new BigDecimal("40")).orElseThrow();
+        apply(accountId, new BigDecimal("50")).orElseThrow();
+
+        // More than the account row holds, less than the row and its shards
+        AccountBalanceUpdateResult result = apply(accountId, new BigDecimal("-80")).orElseThrow();
+
+        assertEquals(new BigDecimal("100.0000"), result.oldBalance());
+        assertEquals(new BigDecimal("20.0000"), result.newBalance());
+        assertEquals(new BigDecimal("20.0000"), fixtures.rowBalance(accountId));
+        assertEquals(new BigDecimal("0.0000"), fixtures.shardBalance(accountId));
+        assertEquals(List.of("CREDIT 40.0000", "CREDIT 50.0000", "DEBIT 80.0000"), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void rejectsADebitBeyondTheRowAndItsShards() {
+        UUID accountId = shardedAccount(new BigDecimal("10"));
+        apply(accountId, new BigDecimal("20")).orElseThrow();
+
+        assertEquals(Optional.empty(), apply(accountId, new BigDecimal("-50")));
+
+        assertEquals(new BigDecimal("30.0000"), balance(accountId));
+        assertEquals(List.of("CREDIT 20.0000"), fixtures.ledgerEntries(accountId));
+    }
+
+    @Test
+    void consolidationIsIdempotent() {
+        UUID accountId = shardedAccount(new BigDecimal("10"));
+        apply(accountId, new BigDecimal("15")).orElseThrow();
+        apply(accountId, new BigDecimal("25")).orElseThrow();
+
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> accountRepository.consolidateShards(accountId)));
+        assertFalse(QuarkusTransaction.requiringNew().call(() -> accountRepository.consolidateShards(accountId)));
+        consolidator.consolidate();
+
+        assertEquals(new BigDecimal("50.0000"), fixtures.rowBalance(accountId));
+        assertEquals(new BigDecimal("0.0000"), fixtures.shardBalance(accountId));
+        assertEquals(new BigDecimal("50.0000"), balance(accountId));
+    }
+
+    @Test
+    void resizingKeepsTheTotalBalance() {
+        UUID accountId = shardedAccount(new BigDecimal("10"));
+        apply(accountId, new BigDecimal("30")).orElseThrow();
+
+        assertTrue(QuarkusTransaction.requiringNew().call(() -> accountRepository.configureShards(accountId, 0)));
+
+        assertEquals(new BigDecimal("40.0000"), fixtures.rowBalance(accountId));
+        assertEquals(new BigDecimal("0"), fixtures.shardBalance(accountId));
+    }
+
+    private UUID shardedAccount(BigDecimal balance) {
+        UUID accountId = fixtures.account(balance, "MERCHANT");
+        QuarkusTransaction.requiringNew().run(() -> accountRepository.configureShards(accountId, 4));
+        return accountId;
+    }
+
+    private Optional<AccountBalanceUpdateResult> apply(UUID accountId, BigDecimal delta) {
+        UUID transactionId = fixtures.transaction(accountId, delta);
+        return QuarkusTransaction.requiringNew()
+                .call(() -> accountRepository.applyBalanceUpdate(transactionId, accountId, delta));
+    }
+
+    private BigDecimal balance(UUID accountId) {
+        return QuarkusTransaction.requiringNew()
+                .call(() -> accountRepository.findBalance(accountId)).orElseThrow().balance();
+    }
+}
@@ -0,0 +1,151 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+import org.nguyennn.account_svc.application.dto.AccountBalanceUpdateResult;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Sends updates to the writer from many threads at once, so they queue up and are committed in
+ * groups
+ */
+@QuarkusTest
+class LedgerWriterGroupCommitTest {
+
+    @Inject
+    LedgerWriter ledgerWriter;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Test
+    void appliesUpdatesToManyAccountsAtOnce() throws Exception {
+        List<UUID> accountIds = new ArrayList<>();
+        List<Callable<Optional<AccountBalanceUpdateResult>>> updates = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            UUID accountId = fixtures.account(new BigDecimal("100"));
+            accountIds.add(accountId);
+            for (int j = 0; j < 5; j++) {
+                updates.add(update(accountId, new BigDecimal("-10")));
+            }
+        }
+
+        for (Future<Optional<AccountBalanceUpdateResult>> result : runTogether(updates)) {
+            assertTrue(result.get().isPresent());
+        }
+        for (UUID accountId : accountIds) {
+            assertEquals(new BigDecimal("50.0000"), fixtures.rowBalance(accountId));
+            assertEquals(5, fixtures.ledgerEntries(accountId).size());
+        }
+    }
+
+    @Test
+    void rejectsOnlyTheUpdatesThatWouldOverdraw() throws Exception {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        List<Callable<Optional<AccountBalanceUpdateResult>>> updates = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            updates.add(update(accountId, new BigDecimal("-20")));
+        }
+
+        int applied = 0;
+        for (Future<Optional<AccountBalanceUpdateResult>> result : runTogether(updates)) {
+            applied += result.get().isPresent() ? 1 : 0;
+        }
+
+        assertEquals(5, applied);
+        assertEquals(new BigDecimal("0.0000"), fixtures.rowBalance(accountId));
+    }
+
+    @Test
+    void failsOnlyTheUpdateWhoseTransactionDoesNotExist() throws Exception {
+        UUID known = fixtures.account(new BigDecimal("100"));
+        UUID unknown = fixtures.account(new BigDecimal("100"));
+        List<Callable<Optional<AccountBalanceUpdateResult>>> updates = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            updates.add(update(known, new BigDecimal("10")));
+        }
+        // The transaction service never recorded this one, so its ledger entry has nothing to reference
+        updates.add(() -> ledgerWriter.apply(UUID.randomUUID(), unknown, new BigDecimal("10")));
+
+        List<Future<Optional<AccountBalanceUpdateResult>>> results = runTogether(updates);
+
+        for (Future<Optional<AccountBalanceUpdateResult>> result : results.subList(0, 5)) {
+            assertTrue(result.get().isPresent());
+        }
+        ExecutionException failure = assertThrows(ExecutionException.class, results.getLast()::get);
+        assertInstanceOf(RuntimeException.class, failure.getCause());
+        assertEquals(new BigDecimal("150.0000"), fixtures.rowBalance(known));
+        assertEquals(new BigDecimal("100.0000"), fixtures.rowBalance(unknown));
+        assertEquals(List.of(), fixtures.ledgerEntries(unknown));
+    }
+
+    @Test
+    void appliesUpdatesToShardedAccountsOutsideTheGroup() throws Exception {
+        UUID plain = fixtures.account(new BigDecimal("100"));
+        UUID sharded = fixtures.account(new BigDecimal("100"), "MERCHANT");
+        QuarkusTransaction.requiringNew().run(() -> accountRepository.configureShards(sharded, 4));
+        List<Callable<Optional<AccountBalanceUpdateResult>>> updates = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            updates.add(update(plain, new BigDecimal("10")));
+            updates.add(update(sharded, new BigDecimal("10")));
+        }
+        updates.add(update(sharded, new BigDecimal("-90")));
+
+        for (Future<Optional<AccountBalanceUpdateResult>> result : runTogether(updates)) {
+            result.get();
+        }
+
+        assertEquals(new BigDecimal("130.0000"), fixtures.rowBalance(plain));
+        BigDecimal total = fixtures.rowBalance(sharded).add(fixtures.shardBalance(sharded));
+        // The debit fits whether it ran before or after the credits
+        assertEquals(new BigDecimal("40.0000"), total);
+        assertEquals(4, fixtures.ledgerEntries(sharded).size());
+    }
+
+    private Callable<Optional<AccountBalanceUpdateResult>> update(UUID accountId, BigDecimal delta) {
+        UUID transactionId = fixtures.transaction(accountId, delta);
+        return () -> ledgerWriter.apply(transactionId, accountId, delta);
+    }
+
+    /**
+     * @return the results in the order of the updates
+     */
+    private static List<Future<Optional<AccountBalanceUpdateResult>>> runTogether(
+            List<Callable<Optional<AccountBalanceUpdateResult>>> updates) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<AccountBalanceUpdateResult>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Callable<Optional<AccountBalanceUpdateResult>> update : updates) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return update.call();
+                }));
+            }
+            start.countDown();
+        }
+        return results;
+    }
+}
@@ -0,0 +1,72 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LedgerWriterTest {
+
+    private static final UUID A = new UUID(0, 1);
+    private static final UUID B = new UUID(0, 2);
+    private static final UUID C = new UUID(0, 3);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // No writers are started, so updates stay queued until the writer stops
+    private final LedgerWriter writer = new LedgerWriter(null, meterRegistry, 10, 256, Duration.ofMillis(1), 1);
+
+    @Test
+    void splitsUpdatesIntoRoundsOfDistinctAccountsInQueueOrder() {
+        List<LedgerWriter.PendingUpdate> sorted = List.of(update(A), update(A), update(A), update(B), update(C),
+                update(C));
+
+        assertEquals(List.of(List.of(0, 3, 4), List.of(1, 5), List.of(2)), LedgerWriter.rounds(sorted));
+    }
+
+    @Test
+    void putsDistinctAccountsInOneRound() {
+        assertEquals(List.of(List.of(0, 1, 2)), LedgerWriter.rounds(List.of(update(A), update(B), update(C))));
+    }
+
+    @Test
+    void failsAnUpdateWaitingWhenTheWriterStops() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> waiting = executor.submit(() -> writer.apply(UUID.randomUUID(), A, BigDecimal.TEN));
+            while (meterRegistry.get("account.ledger.queue.depth").gauge().value() == 0) {
+                Thread.onSpinWait();
+            }
+
+            writer.stop();
+
+            ExecutionException failure = assertThrows(ExecutionException.class, waiting::get);
+            assertInstanceOf(IllegalStateException.class, failure.getCause());
+        }
+        assertEquals(0, meterRegistry.get("account.ledger.queue.depth").gauge().value());
+    }
+
+    @Test
+    void failsUpdatesQueuedAfterTheWriterStopped() {
+        writer.stop();
+
+        // Does not wait for a writer that is gone
+        assertThrows(IllegalStateException.class, () -> writer.apply(UUID.randomUUID(), A, BigDecimal.TEN));
+        assertEquals(0, meterRegistry.get("account.ledger.queue.depth").gauge().value());
+    }
+
+    private static LedgerWriter.PendingUpdate update(UUID accountId) {
+        return new LedgerWriter.PendingUpdate(UUID.randomUUID(), accountId, BigDecimal.ONE, new CompletableFuture<>());
+    }
+}
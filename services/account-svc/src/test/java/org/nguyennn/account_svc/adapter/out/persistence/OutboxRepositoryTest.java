@@ -0,0 +1,98 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+@QuarkusTest
+class OutboxRepositoryTest {
+
+    private static final String TOPIC = "outbox-test";
+
+    @Inject
+    OutboxRepository outboxRepository;
+
+    @BeforeEach
+    void emptyTheOutbox() {
+        QuarkusTransaction.requiringNew().run(() -> outboxRepository.claim(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void claimsInInsertionOrder() {
+        append(List.of("a", "b", "a", "c"), List.of("a1", "b1", "a2", "c1"));
+
+        assertEquals(List.of("a1", "b1", "a2", "c1"), payloads(claim(10)));
+        assertEquals(List.of(), claim(10));
+    }
+
+    @Test
+    void claimsAnUnbrokenRunOfEachKeyUpToTheLimit() {
+        append(List.of("a", "b", "a", "a"), List.of("a1", "b1", "a2", "a3"));
+
+        assertEquals(List.of("a1", "b1", "a2"), payloads(claim(3)));
+        assertEquals(List.of("a3"), payloads(claim(3)));
+    }
+
+    @Test
+    void skipsKeysAnotherRelayIsPublishing() throws Exception {
+        append(List.of("a", "b"), List.of("a1", "b1"));
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // The other relay holds a1 until it is told to commit
+            Future<List<OutboxMessage>> other = executor.submit(() -> QuarkusTransaction.requiringNew().call(() -> {
+                List<OutboxMessage> messages = outboxRepository.claim(1);
+                claimed.countDown();
+                release.await();
+                return messages;
+            }));
+            claimed.await();
+            append(List.of("a", "b"), List.of("a2", "b2"));
+
+            // a2 must wait for a1; b is free
+            assertEquals(List.of("b1", "b2"), payloads(claim(10)));
+
+            release.countDown();
+            assertEquals(List.of("a1"), payloads(other.get()));
+        }
+        assertEquals(List.of("a2"), payloads(claim(10)));
+    }
+
+    @Test
+    void retriesARolledBackClaimInOrder() {
+        append(List.of("a", "a"), List.of("a1", "a2"));
+
+        // The relay rolls the batch back and tries again later
+        assertThrows(RuntimeException.class, () -> QuarkusTransaction.requiringNew().run(() -> {
+            outboxRepository.claim(1);
+            throw new IllegalStateException("Kafka did not acknowledge outbox batch");
+        }));
+
+        assertEquals(List.of("a1", "a2"), payloads(claim(10)));
+    }
+
+    private void append(List<String> keys, List<String> payloads) {
+        QuarkusTransaction.requiringNew().run(() -> outboxRepository.append(TOPIC, keys, payloads));
+    }
+
+    private List<OutboxMessage> claim(int limit) {
+        return QuarkusTransaction.requiringNew().call(() -> outboxRepository.claim(limit));
+    }
+
+    private static List<String> payloads(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::payload).toList();
+    }
+}
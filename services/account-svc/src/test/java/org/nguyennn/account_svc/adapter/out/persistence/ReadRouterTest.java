@@ -0,0 +1,128 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.common.ReadConsistency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+class ReadRouterTest {
+
+    private static final long NOW = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(null, meterRegistry, true, Duration.ofSeconds(2));
+    private final ReadConsistency readConsistency = new ReadConsistency();
+
+    private Object transactionKey;
+    private boolean requestActive = true;
+
+    @Test
+    void readsFromAHealthyReplica() {
+        lagMonitor.record(NOW, 100);
+
+        assertTrue(router(true).useReplica());
+    }
+
+    @Test
+    void readsFromThePrimaryWhileTheReplicaIsDisabled() {
+        lagMonitor.record(NOW, 100);
+
+        assertFalse(router(false).useReplica());
+    }
+
+    @Test
+    void readsFromThePrimaryUntilTheFirstLagCheck() {
+        assertFalse(router(true).useReplica());
+    }
+
+    @Test
+    void fallsBackToThePrimaryWhileTheReplicaLagsTooFarBehind() {
+        ReadRouter router = router(true);
+
+        lagMonitor.record(NOW, 5000);
+        assertFalse(router.useReplica());
+
+        lagMonitor.record(NOW + 1000, 100);
+        assertTrue(router.useReplica());
+    }
+
+    @Test
+    void readsFromThePrimaryInsideATransaction() {
+        lagMonitor.record(NOW, 100);
+        transactionKey = new Object();
+
+        assertFalse(router(true).useReplica());
+    }
+
+    @Test
+    void readsFromThePrimaryOutsideARequest() {
+        lagMonitor.record(NOW, 100);
+        requestActive = false;
+
+        assertFalse(router(true).useReplica());
+    }
+
+    @Test
+    void readsFromThePrimaryForStrongConsistency() {
+        lagMonitor.record(NOW, 100);
+        readConsistency.setStrong(true);
+
+        assertFalse(router(true).useReplica());
+    }
+
+    @Test
+    void staysOnThePrimaryAfterARequestWrote() {
+        lagMonitor.record(NOW, 100);
+        ReadRouter router = router(true);
+
+        router.recordWrite();
+
+        assertTrue(readConsistency.isWritten());
+        assertFalse(router.useReplica());
+    }
+
+    @Test
+    void staysOnThePrimaryUntilTheReplicaReplayedTheCallersLastWrite() {
+        ReadRouter router = router(true);
+        // The write committed 50 ms before the check, on a replica 100 ms behind
+        readConsistency.setLastWriteMillis(NOW - 50);
+
+        lagMonitor.record(NOW, 100);
+        assertFalse(router.useReplica());
+
+        lagMonitor.record(NOW + 1000, 100);
+        assertTrue(router.useReplica());
+    }
+
+    @Test
+    void countsReadsByTarget() {
+        ReadRouter router = router(true);
+        router.useReplica();
+        lagMonitor.record(NOW, 100);
+        router.useReplica();
+        router.useReplica();
+
+        assertEquals(1, meterRegistry.get("account.persistence.reads").tag("target", "primary").counter().count());
+        assertEquals(2, meterRegistry.get("account.persistence.reads").tag("target", "replica").counter().count());
+    }
+
+    private ReadRouter router(boolean enabled) {
+        TransactionSynchronizationRegistry transactions = (TransactionSynchronizationRegistry) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] { TransactionSynchronizationRegistry.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("getTransactionKey")) {
+                        return transactionKey;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new ReadRouter(readConsistency, transactions, lagMonitor, meterRegistry, () -> requestActive, enabled);
+    }
+}
@@ -0,0 +1,67 @@
+package org.nguyennn.account_svc.adapter.out.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.nguyennn.account_svc.AccountFixtures;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+
+/**
+ * Runs the replica's JDBC statements against the primary, where the same data is also readable
+ * through Hibernate, so both bindings of the shared SQL can be compared.
+ */
+@QuarkusTest
+class ReplicaAccountReaderTest {
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    AccountRepository accountRepository;
+
+    @Inject
+    BalanceCheckpointRepository checkpointRepository;
+
+    @Inject
+    AccountFixtures fixtures;
+
+    @Test
+    void readsTheSameBalancesAsThePrimary() {
+        UUID plain = fixtures.account(new BigDecimal("100"));
+        UUID sharded = fixtures.account(new BigDecimal("10"), "MERCHANT");
+        QuarkusTransaction.requiringNew().run(() -> accountRepository.configureShards(sharded, 2));
+        UUID transactionId = fixtures.transaction(sharded, new BigDecimal("5"));
+        QuarkusTransaction.requiringNew()
+                .run(() -> accountRepository.applyBalanceUpdate(transactionId, sharded, new BigDecimal("5")));
+
+        List<UUID> ids = List.of(plain, sharded);
+        assertEquals(Set.copyOf(QuarkusTransaction.requiringNew().call(() -> accountRepository.findBalances(ids))),
+                Set.copyOf(new ReplicaAccountReader(dataSource).findBalances(ids)));
+    }
+
+    @Test
+    void readsTheSameHistoricalBalanceAsThePrimary() {
+        UUID accountId = fixtures.account(new BigDecimal("100"));
+        OffsetDateTime checkpointAt = OffsetDateTime.now();
+        QuarkusTransaction.requiringNew().run(() -> checkpointRepository.checkpoint(List.of(accountId), checkpointAt));
+        UUID transactionId = fixtures.transaction(accountId, new BigDecimal("30"));
+        QuarkusTransaction.requiringNew()
+                .run(() -> accountRepository.applyBalanceUpdate(transactionId, accountId, new BigDecimal("-30")));
+
+        OffsetDateTime asOf = OffsetDateTime.now();
+        assertEquals(QuarkusTransaction.requiringNew().call(() -> checkpointRepository.findBalanceAt(accountId, asOf)),
+                new ReplicaAccountReader(dataSource).findBalanceAt(accountId, asOf));
+        assertEquals(new BigDecimal("70.0000"),
+                new ReplicaAccountReader(dataSource).findBalanceAt(accountId, asOf).orElseThrow().balance());
+    }
+}
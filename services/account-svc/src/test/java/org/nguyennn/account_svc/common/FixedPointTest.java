@@ -0,0 +1,53 @@
+package org.nguyennn.account_svc.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+class FixedPointTest {
+
+    @Test
+    void convertsAmountsUpToScale() {
+        assertEquals(1_234_500L, FixedPoint.toLong(new BigDecimal("123.45")));
+        assertEquals(1_234_567L, FixedPoint.toLong(new BigDecimal("123.4567")));
+        assertEquals(-10_000L, FixedPoint.toLong(new BigDecimal("-1")));
+        assertEquals(0L, FixedPoint.toLong(BigDecimal.ZERO));
+    }
+
+    @Test
+    void acceptsTrailingZerosBeyondScale() {
+        assertEquals(1_234_500L, FixedPoint.toLong(new BigDecimal("123.450000")));
+    }
+
+    @Test
+    void rejectsMoreDecimalsThanScale() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FixedPoint.toLong(new BigDecimal("1.00001")));
+        assertTrue(e.getMessage().contains("more than 4 decimals"), e.getMessage());
+    }
+
+    @Test
+    void rejectsAmountsOutOfRange() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FixedPoint.toLong(new BigDecimal("1e16")));
+        assertTrue(e.getMessage().contains("out of range"), e.getMessage());
+    }
+
+    @Test
+    void roundTripsThroughLong() {
+        BigDecimal amount = new BigDecimal("98765.4321");
+        assertEquals(amount, FixedPoint.toBigDecimal(FixedPoint.toLong(amount)));
+        assertEquals(FixedPoint.SCALE, FixedPoint.toBigDecimal(5L).scale());
+    }
+
+    @Test
+    void requireExactReturnsTheAmount() {
+        BigDecimal amount = new BigDecimal("0.0001");
+        assertEquals(amount, FixedPoint.requireExact(amount));
+        assertThrows(IllegalArgumentException.class, () -> FixedPoint.requireExact(new BigDecimal("0.00001")));
+    }
+}
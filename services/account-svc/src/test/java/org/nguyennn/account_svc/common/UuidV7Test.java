@@ -0,0 +1,51 @@
+package org.nguyennn.account_svc.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+    @Test
+    void setsVersionAndVariant() {
+        for (int i = 0; i < 1000; i++) {
+            UUID uuid = UuidV7.next();
+            assertEquals(7, uuid.version());
+            assertEquals(2, uuid.variant());
+        }
+    }
+
+    @Test
+    void embedsTheCurrentUnixMillis() {
+        long before = System.currentTimeMillis();
+        UUID uuid = UuidV7.next();
+        long after = System.currentTimeMillis();
+
+        long timestamp = uuid.getMostSignificantBits() >>> 16;
+        assertTrue(timestamp >= before && timestamp <= after, () -> timestamp + " not in [" + before + ", " + after + "]");
+    }
+
+    @Test
+    void ordersByCreationTimeAcrossMilliseconds() throws InterruptedException {
+        UUID first = UuidV7.next();
+        Thread.sleep(2);
+        UUID second = UuidV7.next();
+
+        // Compared as unsigned bytes, which is how PostgreSQL orders uuid values
+        assertTrue(Long.compareUnsigned(first.getMostSignificantBits(), second.getMostSignificantBits()) < 0);
+    }
+
+    @Test
+    void generatesDistinctIds() {
+        Set<UUID> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7.next());
+        }
+        assertEquals(10_000, ids.size());
+    }
+}